@@ -0,0 +1,455 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Micro-benchmarks for the hot paths of the game: deploying mines,
+ *  flood fills, moves, hints, and the leaderboard.
+ *
+ *  You can run the benchmarks using:
+ *    java Benchmarks            # everything
+ *    java Benchmarks fill click # just the ones named
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <i>Benchmarks</i> times the paths that matter most as boards get bigger,
+ * across several board sizes and mine densities:
+ *   - deploy: Board.deployMines, in mines placed per second
+ *   - fill: one reveal from an empty cell on a fresh board
+ *   - click: one move (reveal, flag or chord) on a game in progress, which
+ *     is what Game.mouseClicked does once it has worked out the cell
+ *   - replay: playing back a recorded game with Replay
+ *   - hint: answering a hint on a game in progress, as Game.showHint does,
+ *     with the solvers kept up to date after every move
+ *   - leaderboard: ScoreStore load, insert, save and compact, on files in a
+ *     temporary directory
+ *   - contention: many threads inserting into and reading one ScoreStore
+ * Each benchmark runs a few warm-up rounds first so the JIT has settled, then
+ * reports the average over the measured rounds. Setup work, such as building
+ * a fresh board, is done outside the timed part.
+ */
+public class Benchmarks {
+
+    // Board sizes to try, as { rows, cols }.
+    private static final int[][] SIZES = { { 20, 30 }, { 300, 300 }, { 1000, 1000 } };
+
+    // Fraction of cells that hide a mine.
+    private static final double[] DENSITIES = { 0.01, 0.10, 0.20 };
+
+    // Number of rounds to throw away, then to measure.
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    // Results are added up here so the JIT can't optimize the work away.
+    private static long sink;
+
+    // Number of mines for a board of the given size and density.
+    private static int minesFor(int rows, int cols, double density) {
+        return (int)Math.max(1, Math.round(density * rows * cols));
+    }
+
+    // Build a fresh board with mines deployed from a fixed seed.
+    private static Board makeBoard(int rows, int cols, int mines, long seed) {
+        StdRandom.setSeed(seed);
+        Board b = new Board(rows, cols);
+        b.deployMines(mines);
+        return b;
+    }
+
+    // Print one line of results.
+    private static void report(String name, int rows, int cols, double density,
+                               double nanosPerOp, String extra) {
+        StdOut.printf("%-12s %5d x %-5d %4.0f%%  %14.1f ns/op  %s\n",
+                      name, rows, cols, density * 100, nanosPerOp, extra);
+    }
+
+    /**
+     * Time Board.deployMines, including working out the neighbor counts.
+     */
+    public static void deploy() {
+        for (int[] size : SIZES) {
+            for (double density : DENSITIES) {
+                int rows = size[0], cols = size[1];
+                int mines = minesFor(rows, cols, density);
+                long elapsed = 0;
+                for (int k = 0; k < WARMUP + ROUNDS; k++) {
+                    Board b = new Board(rows, cols);
+                    StdRandom.setSeed(k);
+                    long start = System.nanoTime();
+                    b.deployMines(mines);
+                    long t = System.nanoTime() - start;
+                    if (k >= WARMUP)
+                        elapsed += t;
+                    sink += b.getMinePosition(0);
+                }
+                double perBoard = (double)elapsed / ROUNDS;
+                report("deploy", rows, cols, density, perBoard,
+                       String.format("%.1f M mines/s", mines / perBoard * 1e3));
+            }
+        }
+    }
+
+    /**
+     * Time a single reveal from the first empty cell of a fresh board.
+     */
+    public static void fill() {
+        for (int[] size : SIZES) {
+            for (double density : DENSITIES) {
+                int rows = size[0], cols = size[1];
+                int mines = minesFor(rows, cols, density);
+                long elapsed = 0;
+                long revealed = 0;
+                for (int k = 0; k < WARMUP + ROUNDS; k++) {
+                    Board b = makeBoard(rows, cols, mines, k);
+                    long i = firstEmptyCell(b);
+                    if (i < 0)
+                        continue;
+                    long start = System.nanoTime();
+                    long n = b.fill(i);
+                    long t = System.nanoTime() - start;
+                    if (k >= WARMUP) {
+                        elapsed += t;
+                        revealed += n;
+                    }
+                }
+                report("fill", rows, cols, density, (double)elapsed / ROUNDS,
+                       String.format("%d cells/reveal", revealed / ROUNDS));
+            }
+        }
+    }
+
+    // Find the first cell with no mine and no neighboring mines, or -1.
+    private static long firstEmptyCell(Board b) {
+        for (int r = 0; r < b.getNumRows(); r++)
+            for (int c = 0; c < b.getNumCols(); c++)
+                if (!b.isMine(r, c) && b.getNeighborMineCount(r, c) == 0)
+                    return b.index(r, c);
+        return -1;
+    }
+
+    /**
+     * Time individual moves on a game in progress. Each round plays a fresh
+     * game, making one move on every cell in random order: safe cells are
+     * revealed (or chorded, once revealed) and mines are flagged, so the game
+     * is never lost part way through.
+     */
+    public static void click() {
+        for (int[] size : SIZES) {
+            for (double density : DENSITIES) {
+                int rows = size[0], cols = size[1];
+                int mines = minesFor(rows, cols, density);
+                long elapsed = 0;
+                long moves = 0;
+                for (int k = 0; k < WARMUP + ROUNDS; k++) {
+                    Engine e = new Engine(makeBoard(rows, cols, mines, k));
+                    Board b = e.getBoard();
+                    int[] order = shuffledCells(rows * cols, k);
+                    long start = System.nanoTime();
+                    for (int cell : order) {
+                        int r = cell / cols, c = cell % cols;
+                        MoveResult m;
+                        if (b.isMine(r, c))
+                            m = e.flag(r, c);
+                        else if (b.isRevealed(r, c))
+                            m = e.chord(r, c);
+                        else
+                            m = e.reveal(r, c);
+                        sink += m.getCellsRevealed();
+                    }
+                    long t = System.nanoTime() - start;
+                    if (k >= WARMUP) {
+                        elapsed += t;
+                        moves += order.length;
+                    }
+                }
+                report("click", rows, cols, density, (double)elapsed / moves, "");
+            }
+        }
+    }
+
+    /**
+     * Time Replay: record a game played the same way as click(), then play
+     * it back, checking every move.
+     */
+    public static void replay() {
+        for (int[] size : SIZES) {
+            for (double density : DENSITIES) {
+                int rows = size[0], cols = size[1];
+                int mines = minesFor(rows, cols, density);
+                StdRandom.setSeed(1);
+                Engine e = new Engine(rows, cols, mines);
+                MoveLog log = new MoveLog(1, rows, cols, mines);
+                e.setMoveLog(log);
+                Board b = e.getBoard();
+                for (int cell : shuffledCells(rows * cols, 1)) {
+                    int r = cell / cols, c = cell % cols;
+                    if (b.isMine(r, c))
+                        e.flag(r, c);
+                    else if (b.isRevealed(r, c))
+                        e.chord(r, c);
+                    else
+                        e.reveal(r, c);
+                }
+
+                long elapsed = 0;
+                for (int k = 0; k < WARMUP + ROUNDS; k++) {
+                    Replay replay = new Replay(log);
+                    if (replay.run() >= 0)
+                        throw new IllegalStateException("replay did not match");
+                    if (k >= WARMUP)
+                        elapsed += replay.getElapsedNanos();
+                }
+                report("replay", rows, cols, density,
+                       (double)elapsed / ROUNDS / log.getNumMoves(),
+                       String.format("%.1f bytes/move", (double)log.getNumBytes() / log.getNumMoves()));
+            }
+        }
+    }
+
+    // Number of games of each density for hint().
+    private static final int HINT_GAMES = 3;
+
+    // What hint() measures: every hint, the hints that had to guess, in
+    // wall time and in time the hinting thread spent on the CPU, and the
+    // updates after each move.
+    private static class HintTimes {
+        final Histogram hints = new Histogram("hint", "ns");
+        final Histogram guesses = new Histogram("guess", "ns");
+        final Histogram guessCpu = new Histogram("guess cpu", "ns");
+        final Histogram updates = new Histogram("update", "ns");
+    }
+
+    /**
+     * Time hints on 1000 x 1000 boards, where the worst case matters more
+     * than the average. Each game is played by taking every hint: the
+     * solvers are brought up to date after each move, the way Game does it,
+     * and then a hint is a certainly safe cell if there is one, or else the
+     * safest guess. The game goes on until a guess hits a mine or the board
+     * is cleared. Reports the mean hint; the 99th percentile and worst of
+     * the hints that had to guess, and the worst of those in CPU time, which
+     * leaves out time lost to other threads, such as the ones enumerating
+     * in the background, on a machine with few cores; and the worst update
+     * after a move.
+     */
+    public static void hint() {
+        for (int k = 0; k < WARMUP; k++)
+            playHinted(300, 300, minesFor(300, 300, 0.15), k, new HintTimes());
+        int rows = 1000, cols = 1000;
+        for (double density : new double[] { 0.10, 0.15, 0.20 }) {
+            HintTimes times = new HintTimes();
+            for (int k = 0; k < HINT_GAMES; k++)
+                playHinted(rows, cols, minesFor(rows, cols, density), k, times);
+            report("hint", rows, cols, density, times.hints.getMean(),
+                   String.format("%d hints, %d guesses: p99 %.2f ms, max %.2f ms,"
+                                 + " cpu max %.2f ms; update max %.2f ms",
+                                 times.hints.getCount(), times.guesses.getCount(),
+                                 times.guesses.getP99() / 1e6, times.guesses.getMax() / 1e6,
+                                 times.guessCpu.getMax() / 1e6, times.updates.getMax() / 1e6));
+        }
+    }
+
+    // Play one game by taking every hint, timing each hint and each update.
+    private static void playHinted(int rows, int cols, int mines, long seed, HintTimes times) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Engine e = new Engine(makeBoard(rows, cols, mines, seed));
+        Board b = e.getBoard();
+        Solver solver = new Solver(e);
+        ProbabilitySolver odds = new ProbabilitySolver(solver);
+        odds.setStepBudget(ProbabilitySolver.INTERACTIVE_STEPS);
+        Random random = new Random(seed);
+        long i = firstEmptyCell(b);
+        while (i >= 0 && !e.isGameOver()) {
+            sink += e.reveal(b.rowOf(i), b.colOf(i)).getCellsRevealed();
+            if (e.isGameOver())
+                break;
+            long start = System.nanoTime();
+            odds.update();
+            times.updates.record(System.nanoTime() - start);
+
+            // The hint, as Game.showHint gives it.
+            long cpu = threads.getCurrentThreadCpuTime();
+            start = System.nanoTime();
+            odds.update();
+            i = solver.nextSafe();
+            boolean guessed = i < 0;
+            if (guessed) {
+                odds.compute();
+                i = odds.getSafestCell(random);
+            }
+            long t = System.nanoTime() - start;
+            times.hints.record(t);
+            if (guessed) {
+                times.guesses.record(t);
+                times.guessCpu.record(threads.getCurrentThreadCpuTime() - cpu);
+            }
+        }
+        odds.detach();
+        solver.detach();
+    }
+
+    // The numbers 0 to n-1 in a random order, from a fixed seed.
+    private static int[] shuffledCells(int n, long seed) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++)
+            a[i] = i;
+        StdRandom.setSeed(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = StdRandom.uniform(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    /**
+     * Time loading, inserting into, saving and compacting the scores the way
+     * Leaderboard keeps them, with a ScoreStore and a ScoreLog, on files in a
+     * fresh temporary directory that is deleted afterwards. Every round
+     * compacts the log before its times are read, so no background
+     * compaction is left running into the next round.
+     */
+    public static void leaderboard() throws IOException {
+        Path dir = Files.createTempDirectory("leaderboard");
+        ScoreLog log = new ScoreLog(dir.resolve("leaderboard.dat").toString(),
+                                    dir.resolve("leaderboard.log").toString());
+        try {
+            long loadTime = 0, insertTime = 0, saveTime = 0, compactTime = 0;
+            int inserts = 1000;
+            for (int k = 0; k < WARMUP + ROUNDS; k++) {
+                ScoreStore store = new ScoreStore(Leaderboard.MAX_NUM_SCORES, log);
+                long t0 = System.nanoTime();
+                store.load();
+                long t1 = System.nanoTime();
+                for (int i = 0; i < inserts; i++)
+                    sink += store.insert("medium", "bench", (i * 7919) % 5000);
+                long t2 = System.nanoTime();
+                store.save();
+                long t3 = System.nanoTime();
+                store.compact();
+                long t4 = System.nanoTime();
+                if (k >= WARMUP) {
+                    loadTime += t1 - t0;
+                    insertTime += t2 - t1;
+                    saveTime += t3 - t2;
+                    compactTime += t4 - t3;
+                }
+            }
+            StdOut.printf("%-12s %14.1f ns/op\n", "lb-load", (double)loadTime / ROUNDS);
+            StdOut.printf("%-12s %14.1f ns/op\n", "lb-insert", (double)insertTime / ROUNDS / inserts);
+            StdOut.printf("%-12s %14.1f ns/op\n", "lb-save", (double)saveTime / ROUNDS);
+            StdOut.printf("%-12s %14.1f ns/op\n", "lb-compact", (double)compactTime / ROUNDS);
+        } finally {
+            Files.deleteIfExists(dir.resolve("leaderboard.dat"));
+            Files.deleteIfExists(dir.resolve("leaderboard.log"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Time many threads sharing one ScoreStore, as many headless games would,
+     * with 1, 2, 4, ... threads up to twice the number of processors:
+     *   - lb-read: mostly reads of the top score, with an occasional random
+     *     score inserted, most of which don't make the list
+     *   - lb-write: every thread inserting ever better scores, so nearly
+     *     every insert makes the list and takes a lock
+     * Reports total operations per second across all threads.
+     */
+    public static void contention() {
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+        for (int k = 0; k < WARMUP; k++) {
+            contention(2, false);
+            contention(2, true);
+        }
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            StdOut.printf("%-12s %3d threads %10.2f M ops/s\n", "lb-read", threads,
+                          contention(threads, false));
+            StdOut.printf("%-12s %3d threads %10.2f M ops/s\n", "lb-write", threads,
+                          contention(threads, true));
+        }
+    }
+
+    // Run the given number of threads against a fresh store, all starting
+    // together, and return millions of operations per second.
+    private static double contention(int threads, final boolean writes) {
+        final int ops = 200000;
+        final String[] levels = { "easy", "medium", "hard" };
+        final ScoreStore store = new ScoreStore(Leaderboard.MAX_NUM_SCORES);
+        final CountDownLatch go = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(new Runnable() {
+                public void run() {
+                    Random rand = new Random(id);
+                    long sum = 0;
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < ops; i++) {
+                        String level = levels[i % levels.length];
+                        if (writes)
+                            sum += store.insert(level, "t" + id, ops - i);
+                        else if ((i & 15) == 0)
+                            sum += store.insert(level, "t" + id, rand.nextInt(1000000));
+                        else
+                            sum += store.getScores(level).getScore(0);
+                    }
+                    synchronized (Benchmarks.class) {
+                        sink += sum;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread w : workers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return (double)ops * threads / elapsed * 1e3;
+    }
+
+    /**
+     * A main() function, which runs the benchmarks named on the command line,
+     * or all of them.
+     */
+    public static void main(String args[]) throws IOException {
+        String[] names = args.length > 0 ? args
+            : new String[] { "deploy", "fill", "click", "replay", "hint", "leaderboard", "contention" };
+        for (String name : names) {
+            if (name.equals("deploy"))
+                deploy();
+            else if (name.equals("fill"))
+                fill();
+            else if (name.equals("click"))
+                click();
+            else if (name.equals("replay"))
+                replay();
+            else if (name.equals("hint"))
+                hint();
+            else if (name.equals("leaderboard"))
+                leaderboard();
+            else if (name.equals("contention"))
+                contention();
+            else
+                StdOut.println("Unknown benchmark: " + name);
+        }
+        StdOut.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,731 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Board holds the state of every cell of a minesweeper grid in a
+ *  handful of primitive arrays, so that very large grids fit in
+ *  memory. It knows nothing about windows or drawing.
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A <i>Board</i> object holds the state of all of the cells of a minesweeper
+ * game board. Instead of one object per cell, the state is packed into
+ * primitive arrays:
+ *   - a bitset of which cells hide a mine
+ *   - a bitset of which cells have been revealed
+ *   - a bitset of which cells have been flagged
+ *   - a 4-bit neighbor mine count for each cell, sixteen to a long
+ * That works out to 7 bits per cell, so even a 65,536 x 65,536 board fits.
+ *
+ * Cells are addressed either by (row, col) or by an index. The grid is stored
+ * with a one-cell border all the way around it, so every real cell has eight
+ * neighbors in the arrays and neighbor loops never need bounds checks. Border
+ * cells never hold mines or flags, and they start out marked as revealed so
+ * that a flood fill stops when it reaches them. Indexes are longs because the
+ * largest boards have more than 2^31 cells.
+ */
+public class Board {
+
+    // Number of rows and columns of real (non-border) cells.
+    private final int numRows;
+    private final int numCols;
+
+    // Distance between vertically adjacent cells in the padded grid.
+    private final long stride;
+
+    // Total number of cells in the padded grid, including the border.
+    private final long paddedSize;
+
+    // Offsets from an index to each of its eight neighbors.
+    private final long[] neighbors;
+
+    // One bit per cell: whether a mine is hidden there.
+    private final long[] mines;
+
+    // One bit per cell: whether the cell has been revealed.
+    private final long[] revealed;
+
+    // One bit per cell: whether the cell has been flagged.
+    private final long[] flagged;
+
+    // Four bits per cell: how many neighboring cells hide a mine.
+    private final long[] counts;
+
+    // Indexes of all mines, in the order they were planted. Only the first
+    // numMines entries are in use.
+    private long[] minePositions = new long[0];
+    private int numMines = 0;
+
+    // Index of the mine the user stepped on, or -1 if none.
+    private long exploded = -1;
+
+    // Who to tell when a cell changes.
+    private CellListener[] listeners = new CellListener[0];
+
+    // Work stack for fill(), kept between calls so a fill allocates nothing
+    // once the stack has grown to fit the board.
+    private long[] fillStack = new long[64];
+
+    // Most entries the fill stack may grow to: about as large as a Java
+    // array can be.
+    private int maxFillStack = Integer.MAX_VALUE - 8;
+
+    /**
+     * Constructor: Initializes a blank board with the given dimensions. No
+     * cell holds a mine, and none are revealed or flagged.
+     * @param numRows number of cells tall the board will be.
+     * @param numCols number of cells wide the board will be.
+     */
+    public Board(int numRows, int numCols) {
+        if (numRows < 1 || numCols < 1)
+            throw new IllegalArgumentException("board must be at least 1x1");
+
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.stride = numCols + 2L;
+        this.paddedSize = (numRows + 2L) * stride;
+
+        long words = (paddedSize + 63) >>> 6;
+        long nibbleWords = (paddedSize + 15) >>> 4;
+        if (nibbleWords > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("board is too large: "
+                                               + numRows + "x" + numCols);
+
+        mines = new long[(int)words];
+        revealed = new long[(int)words];
+        flagged = new long[(int)words];
+        counts = new long[(int)nibbleWords];
+
+        neighbors = new long[] {
+            -stride - 1, -stride, -stride + 1,
+            -1,                   +1,
+            stride - 1,  stride,  stride + 1
+        };
+
+        markBorder();
+    }
+
+    // Mark the border as revealed, so fills never walk off the board.
+    private void markBorder() {
+        long last = paddedSize - stride;
+        for (long col = 0; col < stride; col++) {
+            set(revealed, col);
+            set(revealed, last + col);
+        }
+        for (long row = stride; row < last; row += stride) {
+            set(revealed, row);
+            set(revealed, row + stride - 1);
+        }
+    }
+
+    /**
+     * Put the board back the way it was when it was made: no mines, and no
+     * cells revealed or flagged. This lets one Board be reused for game after
+     * game without allocating. Listeners are not told.
+     */
+    public void clear() {
+        Arrays.fill(mines, 0);
+        Arrays.fill(revealed, 0);
+        Arrays.fill(flagged, 0);
+        Arrays.fill(counts, 0);
+        numMines = 0;
+        exploded = -1;
+        markBorder();
+    }
+
+    /**
+     * Get the number of rows of cells on this board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Get the number of columns of cells on this board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Get the total number of cells on this board, not counting the border.
+     */
+    public long getNumCells() {
+        return (long)numRows * numCols;
+    }
+
+    /**
+     * Get the size of the padded index space, including the border. Every
+     * index returned by index() is less than this.
+     */
+    public long getPaddedSize() {
+        return paddedSize;
+    }
+
+    /**
+     * Get the offsets that lead from an index to its eight neighbors. The
+     * returned array is shared, so callers must not modify it.
+     */
+    public long[] getNeighborOffsets() {
+        return neighbors;
+    }
+
+    /**
+     * Convert a row and column into an index.
+     */
+    public long index(int row, int col) {
+        return (row + 1) * stride + (col + 1);
+    }
+
+    /**
+     * Get the row of the cell at the given index.
+     */
+    public int rowOf(long index) {
+        return (int)(index / stride) - 1;
+    }
+
+    /**
+     * Get the column of the cell at the given index.
+     */
+    public int colOf(long index) {
+        return (int)(index % stride) - 1;
+    }
+
+    /**
+     * Returns true if the given row and column are on the board.
+     */
+    public boolean contains(int row, int col) {
+        return row >= 0 && col >= 0 && row < numRows && col < numCols;
+    }
+
+    /**
+     * Returns true if the given index is a border cell rather than a real one.
+     */
+    public boolean isBorder(long index) {
+        long row = index / stride;
+        long col = index % stride;
+        return row == 0 || col == 0 || row > numRows || col > numCols;
+    }
+
+    /**
+     * Add a listener that is told each time a cell is revealed, flagged or
+     * unflagged. Any number of listeners can be added.
+     */
+    public void addCellListener(CellListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Stop telling the given listener about changes.
+     */
+    public void removeCellListener(CellListener listener) {
+        for (int k = 0; k < listeners.length; k++) {
+            if (listeners[k] == listener) {
+                CellListener[] rest = new CellListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, rest, 0, k);
+                System.arraycopy(listeners, k + 1, rest, k, rest.length - k);
+                listeners = rest;
+                return;
+            }
+        }
+    }
+
+    // Tell every listener that a cell changed.
+    private void changed(long i) {
+        for (CellListener l : listeners)
+            l.cellChanged(i);
+    }
+
+    // Helpers for reading and writing single bits of a bitset.
+    private static boolean get(long[] bits, long i) {
+        return (bits[(int)(i >>> 6)] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, long i) {
+        bits[(int)(i >>> 6)] |= (1L << i);
+    }
+
+    private static void clear(long[] bits, long i) {
+        bits[(int)(i >>> 6)] &= ~(1L << i);
+    }
+
+    /**
+     * Returns true if a mine is hidden at the given index.
+     */
+    public boolean isMine(long i) {
+        return get(mines, i);
+    }
+
+    /**
+     * Returns true if the cell at the given index has been revealed.
+     */
+    public boolean isRevealed(long i) {
+        return get(revealed, i);
+    }
+
+    /**
+     * Returns true if the cell at the given index has been flagged.
+     */
+    public boolean isFlagged(long i) {
+        return get(flagged, i);
+    }
+
+    /**
+     * Returns how many neighbors of the cell at the given index hide a mine.
+     */
+    public int getNeighborMineCount(long i) {
+        return (int)(counts[(int)(i >>> 4)] >>> ((i & 15) << 2)) & 15;
+    }
+
+    /**
+     * Hide a mine at the given index, and add it to the list of mine
+     * positions. This does not touch any neighbor counts.
+     */
+    public void plantMine(long i) {
+        if (isMine(i))
+            return;
+        set(mines, i);
+        if (numMines == minePositions.length)
+            minePositions = Arrays.copyOf(minePositions, Math.max(16, 2 * numMines));
+        minePositions[numMines++] = i;
+    }
+
+    /**
+     * Increment the neighbor mine count at the given index by one.
+     */
+    public void incrementNeighborMineCount(long i) {
+        counts[(int)(i >>> 4)] += 1L << ((i & 15) << 2);
+    }
+
+    /**
+     * Set the neighbor mine count at the given index to a value from 0 to 15.
+     */
+    public void setNeighborMineCount(long i, int count) {
+        int word = (int)(i >>> 4);
+        int shift = (int)((i & 15) << 2);
+        counts[word] = (counts[word] & ~(15L << shift)) | ((long)(count & 15) << shift);
+    }
+
+    /**
+     * Mark the cell at the given index as revealed.
+     */
+    public void reveal(long i) {
+        set(revealed, i);
+        changed(i);
+    }
+
+    /**
+     * Flag the cell at the given index.
+     */
+    public void flag(long i) {
+        set(flagged, i);
+        changed(i);
+    }
+
+    /**
+     * Remove the flag from the cell at the given index.
+     */
+    public void unFlag(long i) {
+        clear(flagged, i);
+        changed(i);
+    }
+
+    /**
+     * Remember that the mine at the given index is the one the user pressed.
+     */
+    public void setExploded(long i) {
+        exploded = i;
+    }
+
+    /**
+     * Returns true if the mine at the given index is the one the user pressed.
+     */
+    public boolean isExploded(long i) {
+        return exploded == i;
+    }
+
+    /**
+     * Get the number of mines that have been deployed on this board.
+     */
+    public int getNumMines() {
+        return numMines;
+    }
+
+    /**
+     * Count the cells that have been revealed, not counting the border. This
+     * counts whole words of the bitset at a time.
+     */
+    public long countRevealed() {
+        long n = 0;
+        for (long w : revealed)
+            n += Long.bitCount(w);
+        return n - (paddedSize - getNumCells());
+    }
+
+    /**
+     * Count the cells that have been flagged.
+     */
+    public long countFlagged() {
+        long n = 0;
+        for (long w : flagged)
+            n += Long.bitCount(w);
+        return n;
+    }
+
+    /**
+     * Get the index of the k^th mine, counting from zero, in the order they
+     * were planted. Together with getNumMines() this visits every mine
+     * without looking at the rest of the board.
+     */
+    public long getMinePosition(int k) {
+        return minePositions[k];
+    }
+
+    /**
+     * Deploy exactly the given number of mines, each in a different cell
+     * chosen at random, and compute every cell's neighbor mine count. This
+     * should be called once, on a board with no mines yet. The cells are
+     * picked with StdRandom, so seeding StdRandom first gives the same board
+     * every time.
+     *
+     * Cells are picked with Floyd's sampling algorithm, which takes exactly
+     * one random number per mine and never picks the same cell twice, using
+     * the mine bitset itself to remember which cells are taken. Neighbor
+     * counts are then one pass over the mines, adding one to each of the
+     * eight neighbors; the border means no neighbor needs a bounds check.
+     * @param mines the number of mines to deploy.
+     */
+    public void deployMines(int mines) {
+        deployMines(mines, null);
+    }
+
+    /**
+     * Deploy mines the same way as deployMines(int), but picking cells with
+     * the given Random instead of StdRandom, so that several threads can each
+     * deploy mines on their own boards at once. StdRandom.setSeed(s) starts
+     * it off the same as new Random(s), so a Random seeded with s deploys the
+     * same mines as StdRandom seeded with s.
+     * @param mines the number of mines to deploy.
+     * @param random where to get random numbers, or null to use StdRandom.
+     */
+    public void deployMines(int mines, Random random) {
+        deployMines(mines, random, new long[0]);
+    }
+
+    /**
+     * Deploy mines the same way as deployMines(int, Random), but never in the
+     * cell at the given index or any of its neighbors, so that revealing that
+     * cell first is safe and opens up the area around it.
+     * @param mines the number of mines to deploy.
+     * @param random where to get random numbers, or null to use StdRandom.
+     * @param keepClear the index of the cell to keep clear around.
+     */
+    public void deployMines(int mines, Random random, long keepClear) {
+        long[] skip = new long[9];
+        int n = 0;
+        if (!isBorder(keepClear))
+            skip[n++] = cellNumber(keepClear);
+        for (long offset : neighbors)
+            if (!isBorder(keepClear + offset))
+                skip[n++] = cellNumber(keepClear + offset);
+        skip = Arrays.copyOf(skip, n);
+        Arrays.sort(skip);
+        deployMines(mines, random, skip);
+    }
+
+    // The number of the cell at an index, counting across each row in turn.
+    private long cellNumber(long i) {
+        return (long)rowOf(i) * numCols + colOf(i);
+    }
+
+    // Deploy mines in every cell but those whose numbers are listed in skip,
+    // in increasing order. Floyd's algorithm picks among the cells that are
+    // left, numbered in order, and each pick is turned back into a cell
+    // number by stepping over the skipped cells at or below it.
+    private void deployMines(int mines, Random random, long[] skip) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        long numCells = getNumCells() - skip.length;
+        if (mines < 0 || mines > numCells)
+            throw new IllegalArgumentException("cannot deploy " + mines
+                                               + " mines on " + numCells + " cells");
+
+        int first = numMines;
+        minePositions = Arrays.copyOf(minePositions, numMines + mines);
+        for (long j = numCells - mines; j < numCells; j++) {
+            long pick = skipOver(randomCell(j + 1, random), skip);
+            long i = index((int)(pick / numCols), (int)(pick % numCols));
+            if (isMine(i)) {
+                long last = skipOver(j, skip);
+                i = index((int)(last / numCols), (int)(last % numCols));
+            }
+            plantMine(i);
+        }
+
+        for (int k = first; k < numMines; k++)
+            for (long offset : neighbors)
+                incrementNeighborMineCount(minePositions[k] + offset);
+        if (Metrics.ENABLED)
+            Metrics.DEPLOY.record(System.nanoTime() - start);
+    }
+
+    // Turn the n^th cell not listed in skip into its cell number.
+    private static long skipOver(long n, long[] skip) {
+        for (long c : skip)
+            if (c <= n)
+                n++;
+        return n;
+    }
+
+    // Pick a uniformly random cell number from 0 up to (but not including) n.
+    // StdRandom.uniform only takes int ranges, so larger boards use a double.
+    private static long randomCell(long n, Random random) {
+        if (random == null) {
+            if (n <= Integer.MAX_VALUE)
+                return StdRandom.uniform((int)n);
+            return Math.min(n - 1, (long)(StdRandom.uniform() * n));
+        }
+        if (n <= Integer.MAX_VALUE)
+            return random.nextInt((int)n);
+        return Math.min(n - 1, (long)(random.nextDouble() * n));
+    }
+
+    /**
+     * Reveal the cell at the given index and, if it has no neighboring mines,
+     * keep revealing outward until every cell bordering the cleared region
+     * shows a number. Mines, flagged cells and cells that are already
+     * revealed are left alone. This works from an explicit stack rather than
+     * by recursion, so it cannot overflow the call stack on large open boards.
+     * @param start the index of the cell to reveal.
+     * @return the number of cells that were revealed.
+     */
+    public long fill(long start) {
+        if (!Metrics.ENABLED)
+            return fillFrom(start);
+        long t = System.nanoTime();
+        long n = fillFrom(start);
+        recordFill(n, t);
+        return n;
+    }
+
+    private long fillFrom(long start) {
+        if (isRevealed(start) || isFlagged(start) || isMine(start))
+            return 0;
+
+        reveal(start);
+        if (getNeighborMineCount(start) != 0)
+            return 1;
+        fillStack[0] = start;
+        return 1 + spread(1);
+    }
+
+    // Count a fill that revealed n cells and began at System.nanoTime() t.
+    private static void recordFill(long n, long t) {
+        Metrics.FILL_TIME.record(System.nanoTime() - t);
+        Metrics.FILL_SIZE.record(n);
+    }
+
+    /**
+     * Reveal several cells at once, as if fill() were called on each of them,
+     * but in a single pass: every cell with no neighboring mines goes onto
+     * one shared stack, so regions that touch are only walked once.
+     * @param starts the indexes of the cells to reveal.
+     * @param count how many entries of starts to use.
+     * @return the number of cells that were revealed.
+     */
+    public long fill(long[] starts, int count) {
+        long t = Metrics.ENABLED ? System.nanoTime() : 0;
+        if (fillStack.length < count)
+            fillStack = Arrays.copyOf(fillStack, count);
+        long numRevealed = 0;
+        int top = 0;
+        for (int k = 0; k < count; k++) {
+            long i = starts[k];
+            if (isRevealed(i) || isFlagged(i) || isMine(i))
+                continue;
+            reveal(i);
+            numRevealed++;
+            if (getNeighborMineCount(i) == 0)
+                fillStack[top++] = i;
+        }
+        numRevealed += spread(top);
+        if (Metrics.ENABLED)
+            recordFill(numRevealed, t);
+        return numRevealed;
+    }
+
+    // Work through the fill stack, whose first top entries are revealed cells
+    // with no neighboring mines, revealing their neighbors. Cells are marked
+    // revealed as they are pushed, so each cell is pushed at most once.
+    // Neighbors of a zero cell are never mines. Returns how many cells were
+    // revealed.
+    //
+    // If the stack can't grow any more, a zero cell that doesn't fit is
+    // revealed but not pushed. Once the stack is empty, the board is scanned
+    // for revealed zero cells that still have hidden neighbors, and the fill
+    // carries on from them.
+    private long spread(int top) {
+        long[] stack = fillStack;
+        long numRevealed = 0;
+        boolean overflowed = false;
+        while (true) {
+            while (top > 0) {
+                long i = stack[--top];
+                for (long offset : neighbors) {
+                    long j = i + offset;
+                    if (isRevealed(j) || isFlagged(j))
+                        continue;
+                    reveal(j);
+                    numRevealed++;
+                    if (getNeighborMineCount(j) == 0) {
+                        if (top == stack.length) {
+                            if (top >= maxFillStack) {
+                                overflowed = true;
+                                continue;
+                            }
+                            int grown = (int)Math.min(maxFillStack, 2L * top);
+                            fillStack = stack = Arrays.copyOf(stack, grown);
+                        }
+                        stack[top++] = j;
+                    }
+                }
+            }
+            if (!overflowed)
+                return numRevealed;
+            overflowed = false;
+            scan:
+            for (int r = 0; r < numRows; r++) {
+                long i = index(r, 0);
+                for (int c = 0; c < numCols; c++, i++) {
+                    if (!isRevealed(i) || isMine(i) || getNeighborMineCount(i) != 0
+                        || !hasHiddenNeighbor(i))
+                        continue;
+                    if (top == stack.length) {
+                        overflowed = true;
+                        break scan;
+                    }
+                    stack[top++] = i;
+                }
+            }
+        }
+    }
+
+    // Returns true if some neighbor of the cell is neither revealed nor
+    // flagged.
+    private boolean hasHiddenNeighbor(long i) {
+        for (long offset : neighbors) {
+            long j = i + offset;
+            if (!isRevealed(j) && !isFlagged(j))
+                return true;
+        }
+        return false;
+    }
+
+    // Limit the fill stack to the given number of entries, so that tests can
+    // make a small board overflow it.
+    void setMaxFillStack(int max) {
+        maxFillStack = Math.max(1, max);
+        if (fillStack.length > maxFillStack)
+            fillStack = new long[maxFillStack];
+    }
+
+    // The same operations, addressed by row and column.
+
+    /**
+     * Returns true if a mine is hidden at the given row and column.
+     */
+    public boolean isMine(int row, int col) {
+        return isMine(index(row, col));
+    }
+
+    /**
+     * Returns true if the cell at the given row and column has been revealed.
+     */
+    public boolean isRevealed(int row, int col) {
+        return isRevealed(index(row, col));
+    }
+
+    /**
+     * Returns true if the cell at the given row and column has been flagged.
+     */
+    public boolean isFlagged(int row, int col) {
+        return isFlagged(index(row, col));
+    }
+
+    /**
+     * Returns how many neighbors of the given cell hide a mine.
+     */
+    public int getNeighborMineCount(int row, int col) {
+        return getNeighborMineCount(index(row, col));
+    }
+
+    /**
+     * Flood fill outward from the given row and column. See fill(long).
+     * @return the number of cells that were revealed.
+     */
+    public long fill(int row, int col) {
+        return fill(index(row, col));
+    }
+
+    /**
+     * Hide a mine at the given row and column.
+     */
+    public void plantMine(int row, int col) {
+        plantMine(index(row, col));
+    }
+
+    /**
+     * Increment the neighbor mine count of the given cell by one.
+     */
+    public void incrementNeighborMineCount(int row, int col) {
+        incrementNeighborMineCount(index(row, col));
+    }
+
+    /**
+     * Set the neighbor mine count of the given cell.
+     */
+    public void setNeighborMineCount(int row, int col, int count) {
+        setNeighborMineCount(index(row, col), count);
+    }
+
+    /**
+     * Mark the cell at the given row and column as revealed.
+     */
+    public void reveal(int row, int col) {
+        reveal(index(row, col));
+    }
+
+    /**
+     * Flag the cell at the given row and column.
+     */
+    public void flag(int row, int col) {
+        flag(index(row, col));
+    }
+
+    /**
+     * Remove the flag from the cell at the given row and column.
+     */
+    public void unFlag(int row, int col) {
+        unFlag(index(row, col));
+    }
+
+    /**
+     * Remember that the mine at the given row and column is the one the user
+     * pressed.
+     */
+    public void setExploded(int row, int col) {
+        setExploded(index(row, col));
+    }
+
+    /**
+     * Returns true if the mine at the given row and column is the one the
+     * user pressed.
+     */
+    public boolean isExploded(int row, int col) {
+        return isExploded(index(row, col));
+    }
+}
@@ -2,211 +2,124 @@
  *  Author:  Sean O'Sullivan
  *  Email:   sposul23@holycross.edu
  *  Written:  11/28/19
- *  
- *  Each Cell object manages information about and draws a
- *  single "cell" of the game grid. 
+ *
+ *  Cell knows how each kind of "cell" of the game grid looks, and
+ *  how to draw one.
  *----------------------------------------------------------------*/
 
 import GUI.*;
 import java.awt.Color;
 
 /**
- * A <i>Cell</i> object holds all information about the state of a single cell
- * of the minesweeper game board. This includes:
+ * The <i>Cell</i> class knows how to draw a single cell of the minesweeper
+ * game board. The state of the cells lives in a Board object; Cell boils that
+ * state down to a "look" code, which depends on:
  *   - whether a mine is hidden in this cell or not
  *   - how many of its neighboring cells contain mines
  *   - whether it has been revealed yet or is still hidden
- * Each Cell object knows how to draw itself in a graphical window, and it will
- * draw itself in different styles depending on all the above state information.
+ *   - whether it has been flagged
+ * A look code from 0 to 8 is a revealed cell with that many neighboring mines.
+ * The GridView widget keeps one look code per visible cell and uses Cell to
+ * draw them, so there is no object per cell.
  */
-public class Cell extends Widget {
+public class Cell {
     /**
-     * Size of one cell when it is drawn on the screen, in pixels.
+     * Size of one cell when it is drawn on the screen at normal zoom, in
+     * pixels.
      */
     public static final int SIZE = 20;
 
     /**
-     * Whether a mine is hidden in this cell or not.
+     * Look of a cell that is still hidden.
      */
-    protected boolean isMine;
+    public static final int HIDDEN = 9;
 
     /**
-     * Whether this cell is "revealed" or not.
+     * Look of a hidden cell that has been flagged.
      */
-    protected boolean isRevealed;
+    public static final int FLAGGED = 10;
 
     /**
-     * Count of how many neighboring cells have mines.
+     * Look of a revealed mine.
      */
-
-
-    protected boolean firstPressed;
-
-     /**
-     *Whether this mine is the one the user pressed.
-     */
-    
-    protected int neighborMineCount;
-
-    /**
-     * Constructor: Initialize a cell to be drawn at the given x, y coordinates
-     * on the screen. The cell will be blank. That is, it will not be a mine,
-     * and it will have no neighboring mines so a neighbor mine count of zero.
-     */
-
-    public boolean flagged;
-
-    
-    public Cell(int x, int y) {
-        super(x, y, SIZE, SIZE);
-        this.isMine = false;
-        this.isRevealed = false;
-        this.neighborMineCount = 0;
-    }
+    public static final int MINE = 11;
 
     /**
-     * Hide a mine in this cell by changing the isMine variable to true.
+     * Look of the revealed mine that the user pressed.
      */
-    public void plantMine() {
-        isMine = true;
-    }
-
-    /**
-     * Returns true if a mine is hidden in this cell, otherwise returns false.
-     */
-    public boolean isMine() {
-        return isMine;
-    }
+    public static final int EXPLODED = 12;
 
+    // Text for each neighbor mine count, made once instead of every frame.
+    private static final String[] DIGITS = { "0", "1", "2", "3", "4", "5", "6", "7", "8" };
 
-     public boolean isFirstMine() {
-        firstPressed = true;
-        return firstPressed;
-    }
-
-    /**
-     * Increment the neighbor mine count variable by one. 
-     */
-    public void incrementNeighborMineCount() {
-        neighborMineCount++;
-    }
+    // Pre-scaled mine pictures, one for each cell size, filled in as needed.
+    private static final String[] mineSprites = new String[GridView.MAX_CELL_SIZE + 1];
 
     /**
-     * Set the neighbor mine count variable to a given value.
+     * Get the mine picture scaled for cells of the given size, scaling it now
+     * if it hasn't been already. Call this ahead of time to preload it.
      */
-    public void setNeighborMineCount(int count) {
-        neighborMineCount = count;
+    public static String mineSprite(int size) {
+        if (mineSprites[size] == null)
+            mineSprites[size] = Sprites.scaled("sid.png", size, size);
+        return mineSprites[size];
     }
 
     /**
-     * Returns the value of the neighbor mine count variable.
+     * Work out how the cell at the given board index should look.
      */
-    public int getNeighborMineCount() {
-        return neighborMineCount;
-    }
-
-    /**
-     * Change this cell so that it is "revealed" by setting isRevealed to true.
-     */
-    public void reveal() {
-        isRevealed = true;
-    }
-
-    /**
-     * Returns true if this cell is "revealed", otherwise returns false.
-     */
-    public boolean isRevealed() {
-        return isRevealed;
-    }
-
-    /**
-     * Hide a mine in this cell by changing the isMine variable to true.
-     */
-    public void makeMine() {
-        isMine = true;
+    public static int lookOf(Board board, long i) {
+        if (board.isRevealed(i)) {
+            if (!board.isMine(i))
+                return board.getNeighborMineCount(i);
+            return board.isExploded(i) ? EXPLODED : MINE;
+        }
+        return board.isFlagged(i) ? FLAGGED : HIDDEN;
     }
 
     /**
-     * Change this cell so that it shows the mine that is hiding in it.
+     * Paint a cell with the given look on the canvas, as a square of the given
+     * size with its top left corner at x, y.
+     * @param canvas the canvas on which to draw.
+     * @param look the look code of the cell.
+     * @param x the x coordinate of the cell, in pixels.
+     * @param y the y coordinate of the cell, in pixels.
+     * @param size the width and height of the cell, in pixels.
      */
-    public void showMine() {
-        if (isMine)
-            isRevealed = true;
-	    }
-
-	    /**
-	     * Check whether there are neighboring mines.
-	     */
-	    public boolean coastIsClear() {
-		return (neighborMineCount == 0);
-	    }
-
-    //check whether cell is flagged.
-     public boolean isFlagged() {
-		return flagged;
-	    }
-
-    //flag cell.
-     public boolean flag() {
-		return flagged = true;
-	    }
-
-    //remove flag from cell.
-     public boolean unFlag() {
-		return flagged = false;
-	    }
-
-	    /**
-	     * Paint this cell on the canvas. Don't call this directly, it is called by
-	     * the GUI system automatically. This function should draw something on the
-	     * canvas. Usually the drawing should stay within the bounds (x, y, width,
-	     * height) which are protected member variables of GUI.Widget, which this
-	     * class extends.
-	     * @param canvas the canvas on which to draw.
-	     */
-    public void repaint(GUI.Canvas canvas) {
-		// TODO: Add code here to draw this cell. The look of the cell should
-		// depend on its current state, e.g. if it has been revealed or not, how
-		// many neighbors it has, and so on. 
-
-        
+    public static void draw(GUI.Canvas canvas, int look, double x, double y, double size) {
         canvas.setPenColor(Canvas.YELLOW.darker());
-        canvas.raisedBevelRectangle(x, y, width, height);
+        canvas.raisedBevelRectangle(x, y, size, size);
         //if cell is pressed and not mine, show neighboring mine count and turn light gray.
-        if(isRevealed == true) {
+        if(look <= 8) {
             canvas.setPenColor(Canvas.BOOK_BLUE);
-            canvas.setFont( 20);
-            canvas.sunkenBevelRectangle(x, y, width, height);
+            canvas.setFont((int)size);
+            canvas.sunkenBevelRectangle(x, y, size, size);
             //Different colors depending on neighborMinecount.
-            if(neighborMineCount == 0)
+            if(look == 0)
                 canvas.setPenColor(Canvas.BOOK_BLUE);
-            if(neighborMineCount == 1)
+            if(look == 1)
                 canvas.setPenColor(Canvas.GREEN.darker());
-            if(neighborMineCount == 2)
+            if(look == 2)
                 canvas.setPenColor(Canvas.YELLOW);
-            if(neighborMineCount == 3)
+            if(look == 3)
                 canvas.setPenColor(Canvas.ORANGE.darker());
-            if(neighborMineCount >= 4)
+            if(look >= 4)
                 canvas.setPenColor(Canvas.RED);
-           canvas.text (x + 10, y + 10, Integer.toString(getNeighborMineCount()));
+           canvas.text (x + size/2, y + size/2, DIGITS[look]);
         }
-         if(flagged) {
+         if(look == FLAGGED) {
             canvas.setPenColor(Canvas.PINK);
-            canvas.filledRectangle(x, y, width, height);
+            canvas.filledRectangle(x, y, size, size);
         }
 
         //if cell is pressed and is a mine show mine and turn cell red.
-        if(isRevealed == true && isMine == true) {
-            if(firstPressed == true)
+        if(look == MINE || look == EXPLODED) {
+            if(look == EXPLODED)
                 canvas.setPenColor(Canvas.RED);
              else //reveal all the other mines.
             canvas.setPenColor(Canvas.YELLOW);
-            canvas.sunkenBevelRectangle(x, y, width, height);
-            canvas.picture(this.x, this.y, "sid.png", 20, 20);
-             canvas.picture(550, 450, "found.png", 200,200);
+            canvas.sunkenBevelRectangle(x, y, size, size);
+            canvas.picture(x, y, mineSprite((int)size), size, size);
         }
-        
-        
-        return;
     }
 }
@@ -0,0 +1,20 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  CellListener is told whenever a cell of a Board changes.
+ *----------------------------------------------------------------*/
+
+/**
+ * A <i>CellListener</i> is notified each time a cell of a Board is revealed,
+ * flagged, or unflagged, so it can keep track of what needs to be redrawn.
+ */
+public interface CellListener {
+
+    /**
+     * Called after the cell at the given board index has changed.
+     * @param index the index of the cell that changed.
+     */
+    void cellChanged(long index);
+}
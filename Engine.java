@@ -0,0 +1,323 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Engine holds the rules of minesweeper, with no window attached,
+ *  so games can be played by programs as well as by people.
+ *----------------------------------------------------------------*/
+
+/**
+ * An <i>Engine</i> object plays one game of minesweeper on a Board. It knows
+ * the rules: what happens when a cell is revealed, flagged or chorded, and
+ * when the game is won or lost. It knows nothing about windows, pixels or
+ * mouse buttons; the Game window translates clicks into calls on an Engine,
+ * and programs can call it directly to play without any display at all.
+ *
+ * Each move returns a MoveResult that says what changed. Once the game has
+ * been won or lost, further moves do nothing.
+ */
+public class Engine {
+
+    /**
+     * Status of a game that is still being played.
+     */
+    public static final int PLAYING = 0;
+
+    /**
+     * Status of a game that has been won.
+     */
+    public static final int WON = 1;
+
+    /**
+     * Status of a game that has been lost.
+     */
+    public static final int LOST = 2;
+
+    // The board the game is played on.
+    private final Board board;
+
+    // Counters kept up to date by every move, so checking whether the game
+    // is over never has to look at the board.
+    private long numRevealed = 0; // number of cells revealed so far
+    private int numFlags = 0;     // number of flags planted
+    private int flagCount = 0;    // number of flags planted on mines
+
+    // Whether the game is being played, won, or lost.
+    private int status = PLAYING;
+
+    // Cells to be revealed by a chord, reused from one chord to the next.
+    private final long[] chordCells = new long[8];
+
+    // Where each move is recorded, or null if moves aren't being recorded.
+    private MoveLog moveLog;
+
+    /**
+     * Initialize a new game on a board that already has its mines deployed.
+     * @param board the board to play on.
+     */
+    public Engine(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Initialize a new game on a fresh board of the given size, with the given
+     * number of mines deployed using StdRandom.
+     */
+    public Engine(int numRows, int numCols, int mines) {
+        this(new Board(numRows, numCols));
+        board.deployMines(mines);
+    }
+
+    /**
+     * Pick up a game part way through, on a board that may already have
+     * cells revealed and flagged, such as one read back by SavedGame. The
+     * counters are worked out from the board, and if a mine has already been
+     * revealed the game is lost.
+     * @param board the board to play on, with its mines deployed.
+     */
+    public static Engine resume(Board board) {
+        Engine e = new Engine(board);
+        e.numRevealed = board.countRevealed();
+        e.numFlags = (int)board.countFlagged();
+        int n = board.getNumMines();
+        for (int k = 0; k < n; k++) {
+            long i = board.getMinePosition(k);
+            if (board.isFlagged(i))
+                e.flagCount++;
+            if (board.isRevealed(i)) {
+                e.numRevealed--; // mines shown at the end don't count
+                e.status = LOST;
+            }
+        }
+        if (e.status == PLAYING)
+            e.checkForWin();
+        return e;
+    }
+
+    /**
+     * Start a new game on the same board, which the caller has already
+     * cleared and deployed new mines on. Every counter goes back to zero.
+     */
+    public void restart() {
+        numRevealed = 0;
+        numFlags = 0;
+        flagCount = 0;
+        status = PLAYING;
+    }
+
+    /**
+     * Record every move from now on in the given log, or stop recording if
+     * it is null.
+     */
+    public void setMoveLog(MoveLog moveLog) {
+        this.moveLog = moveLog;
+    }
+
+    /**
+     * Get the log moves are being recorded in, or null if there is none.
+     */
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+
+    /**
+     * Get the board this game is played on.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the status of the game: PLAYING, WON or LOST.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns true once the game has been won or lost.
+     */
+    public boolean isGameOver() {
+        return status != PLAYING;
+    }
+
+    /**
+     * Get the number of mines that are deployed.
+     */
+    public int getNumMines() {
+        return board.getNumMines();
+    }
+
+    /**
+     * Get the number of flags that are planted.
+     */
+    public int getNumFlags() {
+        return numFlags;
+    }
+
+    /**
+     * Get the number of cells revealed so far.
+     */
+    public long getNumRevealed() {
+        return numRevealed;
+    }
+
+    /**
+     * Get the number of hidden cells remaining to be revealed.
+     */
+    public long getNumCellsRemaining() {
+        return board.getNumCells() - numRevealed;
+    }
+
+    /**
+     * Reveal the cell at the given row and column. A cell with no neighboring
+     * mines also reveals its neighbors, and so on outward. Revealing a mine
+     * loses the game. Flagged and already revealed cells are left alone.
+     * @return what changed.
+     */
+    public MoveResult reveal(int row, int col) {
+        MoveResult r = revealCell(row, col);
+        if (moveLog != null)
+            moveLog.record(MoveLog.REVEAL, row, col, r);
+        return r;
+    }
+
+    private MoveResult revealCell(int row, int col) {
+        if (status != PLAYING || !board.contains(row, col))
+            return result(0, 0);
+        long i = board.index(row, col);
+        if (board.isRevealed(i) || board.isFlagged(i))
+            return result(0, 0);
+
+        if (board.isMine(i)) {
+            board.reveal(i);
+            board.setExploded(i);
+            status = LOST;
+            revealMines();
+            return result(0, 0);
+        }
+
+        long n = board.fill(i);
+        numRevealed += n;
+        checkForWin();
+        return result(n, 0);
+    }
+
+    /**
+     * Plant a flag on the hidden cell at the given row and column, or remove
+     * the flag if there already is one. Flagging every mine, and nothing
+     * else, wins the game.
+     * @return what changed.
+     */
+    public MoveResult flag(int row, int col) {
+        MoveResult r = flagCell(row, col);
+        if (moveLog != null)
+            moveLog.record(MoveLog.FLAG, row, col, r);
+        return r;
+    }
+
+    private MoveResult flagCell(int row, int col) {
+        if (status != PLAYING || !board.contains(row, col))
+            return result(0, 0);
+        long i = board.index(row, col);
+        if (board.isRevealed(i))
+            return result(0, 0);
+
+        int change;
+        if (board.isFlagged(i)) {
+            board.unFlag(i);
+            if (board.isMine(i))
+                flagCount--;
+            numFlags--;
+            change = -1;
+        } else {
+            board.flag(i);
+            if (board.isMine(i))
+                flagCount++;
+            numFlags++;
+            change = +1;
+        }
+        checkForWin();
+        return result(0, change);
+    }
+
+    /**
+     * Chord on the revealed cell at the given row and column: if it has as
+     * many flagged neighbors as it has neighboring mines, reveal all of its
+     * other neighbors. If a flag was in the wrong place, this loses the game.
+     * The neighbors are revealed together in one fill, so any empty regions
+     * they open up are walked once, and the win check is done once.
+     * @return what changed.
+     */
+    public MoveResult chord(int row, int col) {
+        MoveResult r = chordCell(row, col);
+        if (moveLog != null)
+            moveLog.record(MoveLog.CHORD, row, col, r);
+        return r;
+    }
+
+    private MoveResult chordCell(int row, int col) {
+        if (status != PLAYING || !board.contains(row, col))
+            return result(0, 0);
+        long i = board.index(row, col);
+        if (!board.isRevealed(i) || board.isMine(i))
+            return result(0, 0);
+
+        long[] offsets = board.getNeighborOffsets();
+        int flags = 0;
+        for (long offset : offsets)
+            if (board.isFlagged(i + offset))
+                flags++;
+        if (flags != board.getNeighborMineCount(i))
+            return result(0, 0);
+
+        // Collect the hidden, unflagged neighbors. If one of them is a mine, a
+        // flag must be wrong, and the game is lost.
+        int count = 0;
+        for (long offset : offsets) {
+            long j = i + offset;
+            if (board.isRevealed(j) || board.isFlagged(j))
+                continue;
+            if (board.isMine(j)) {
+                board.reveal(j);
+                board.setExploded(j);
+                status = LOST;
+                revealMines();
+                return result(0, 0);
+            }
+            chordCells[count++] = j;
+        }
+
+        long n = board.fill(chordCells, count);
+        numRevealed += n;
+        checkForWin();
+        return result(n, 0);
+    }
+
+    // Show every mine, at the end of a lost game. This walks the board's list
+    // of mine positions, so it takes time proportional to the number of mines,
+    // not the size of the board.
+    private void revealMines() {
+        int n = board.getNumMines();
+        for (int k = 0; k < n; k++)
+            board.reveal(board.getMinePosition(k));
+    }
+
+    // The game is won once every safe cell is revealed, or once every mine,
+    // and nothing else, is flagged. Both checks only compare counters.
+    private void checkForWin() {
+        int numMines = board.getNumMines();
+        if (numRevealed == board.getNumCells() - numMines)
+            status = WON;
+        else if (flagCount == numMines && numFlags == numMines)
+            status = WON;
+    }
+
+    // Make a result for a move, with the current status.
+    private MoveResult result(long cellsRevealed, int flagChange) {
+        if (cellsRevealed == 0 && flagChange == 0 && status == PLAYING)
+            return MoveResult.NOTHING;
+        return new MoveResult(cellsRevealed, flagChange, status);
+    }
+}
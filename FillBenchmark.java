@@ -0,0 +1,102 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Compares reveal latency of the old recursive fill with the
+ *  iterative Board.fill on a board of one million cells.
+ *
+ *  You can run this benchmark using:
+ *    java FillBenchmark [rows cols mines trials]
+ *----------------------------------------------------------------*/
+
+/**
+ * <i>FillBenchmark</i> times a single reveal on a large, sparsely mined board,
+ * which opens up most of the board in one fill. The old recursive fill needs
+ * a very deep call stack for this, so it runs in its own thread with a large
+ * stack; the iterative fill runs in the main thread.
+ */
+public class FillBenchmark {
+
+    // The old Game.fill, recursing into all eight neighbors, ported to Board.
+    private static long recursiveFill(Board b, int n, int i) {
+        if (!b.contains(n, i))
+            return 0;
+        if (b.isRevealed(n, i) || b.isMine(n, i))
+            return 0;
+        b.reveal(n, i);
+        long count = 1;
+        if (b.getNeighborMineCount(n, i) == 0) {
+            count += recursiveFill(b, n-1, i-1);
+            count += recursiveFill(b, n-1, i);
+            count += recursiveFill(b, n-1, i+1);
+            count += recursiveFill(b, n, i-1);
+            count += recursiveFill(b, n, i+1);
+            count += recursiveFill(b, n+1, i-1);
+            count += recursiveFill(b, n+1, i);
+            count += recursiveFill(b, n+1, i+1);
+        }
+        return count;
+    }
+
+    // Build a board with the given number of mines, using a fixed seed so
+    // every trial sees the same layout.
+    private static Board makeBoard(int rows, int cols, int mines) {
+        Board b = new Board(rows, cols);
+        StdRandom.setSeed(1234);
+        b.deployMines(mines);
+        return b;
+    }
+
+    // Find a cell with no neighboring mines to click on.
+    private static int[] findZero(Board b) {
+        for (int row = 0; row < b.getNumRows(); row++)
+            for (int col = 0; col < b.getNumCols(); col++)
+                if (!b.isMine(row, col) && b.getNeighborMineCount(row, col) == 0)
+                    return new int[] { row, col };
+        throw new IllegalStateException("no empty cell to click on");
+    }
+
+    /**
+     * A main() function, which runs the benchmark.
+     */
+    public static void main(String args[]) throws InterruptedException {
+        final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int cols = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final int mines = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        final int trials = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        final int[] click = findZero(makeBoard(rows, cols, mines));
+        StdOut.printf("%d x %d board, %d mines, clicking (%d, %d)\n",
+                      rows, cols, mines, click[0], click[1]);
+
+        // Recursive fill, in a thread with a 1 GB stack.
+        final long[] result = new long[2];
+        Thread t = new Thread(null, new Runnable() {
+            public void run() {
+                for (int k = 0; k < trials; k++) {
+                    Board b = makeBoard(rows, cols, mines);
+                    long start = System.nanoTime();
+                    result[0] = recursiveFill(b, click[0], click[1]);
+                    result[1] += System.nanoTime() - start;
+                }
+            }
+        }, "recursive-fill", 1L << 30);
+        t.start();
+        t.join();
+        StdOut.printf("recursive: %8.3f ms per reveal, %d cells revealed\n",
+                      result[1] / 1e6 / trials, result[0]);
+
+        // Iterative fill.
+        long revealed = 0;
+        long elapsed = 0;
+        for (int k = 0; k < trials; k++) {
+            Board b = makeBoard(rows, cols, mines);
+            long start = System.nanoTime();
+            revealed = b.fill(click[0], click[1]);
+            elapsed += System.nanoTime() - start;
+        }
+        StdOut.printf("iterative: %8.3f ms per reveal, %d cells revealed\n",
+                      elapsed / 1e6 / trials, revealed);
+    }
+}
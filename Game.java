@@ -8,27 +8,40 @@
  *----------------------------------------------------------------*/
 
 import GUI.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
 
 /**
- * A <i>Game</i> object manages all information about a minesweeper game as it
- * is being played and displayed on the screen. This includes information about
- * all of the cells (this is stored in a 2-D array of Cell objects), how many
- * flags have been planted, how many mines have been deployed, etc. Game extends
- * Window, so it can be drawn on the screen. It also extends EventListener so it
- * can respond to user interaction.
+ * A <i>Game</i> object manages a minesweeper game as it is being played and
+ * displayed on the screen. The state of all of the cells is stored in a Board
+ * object, and the rules (how many flags have been planted, whether the game
+ * has been won or lost, etc.) are kept by an Engine. Game turns the user's
+ * clicks into moves on the Engine and shows the results. Game extends Window,
+ * so it can be drawn on the screen. It also extends EventListener so it can
+ * respond to user interaction.
  */
 public class Game extends Window implements EventListener {
 
     /**
-     * Number of cells tall the game board will be.
+     * Number of cells tall the game board will be, unless the game is created
+     * with some other size.
      */
     public static final int NUM_ROWS = 20;
 
     /**
-     * Number of cells wide the game board will be.
+     * Number of cells wide the game board will be, unless the game is created
+     * with some other size.
      */
     public static final int NUM_COLS = 30;
 
+    /**
+     * File a game in progress is saved to when the user quits.
+     */
+    public static final String SAVE_FILE = "save.dat";
+
     // Example game screen layout:
     // +---------------------------------------------------------+
     // |      M A R G I N = 50                                   |
@@ -38,9 +51,9 @@ public class Game extends Window implements EventListener {
     // | G  |                Grid of Cells                  | G  |
     // | I  |                                               | I  |
     // | N  |                                               | N  |
-    // | =  |       600 = NUM_COLS * Cell.SIZE wide         | =  |
+    // | =  |       gridWidth = viewCols * Cell.SIZE wide   | =  |
     // | 50 |                      by                       | 50 |
-    // |    |       400 = NUM_ROWS * Cell.SIZE tall         |    |
+    // |    |       gridHeight = viewRows * Cell.SIZE tall  |    |
     // |    |                                               |    |
     // |    |                                               |    |
     // |    |                                               |    |
@@ -53,34 +66,6 @@ public class Game extends Window implements EventListener {
     // |     M A R G I N = 50                                    |
     // +-- ------------------------------------------------------+
 
-    /**
-     * Width of the game window, in pixels.
-     * Equal to 2*MARGIN + GRID_WIDTH
-     * or 2*MARGIN + 2*SPACE + StatusBox.WIDTH, Timer.WIDTH, HelpBox.WIDTH,
-     * whichever is larger.
-     */
-    public static final int WIDTH = 700;
-
-    /**
-     * Height of the game window, in pixels.
-     * Equal to 2*MARGIN + SPACE
-     *     + GRID_HEIGHT
-     *     + max(StatusBox.Height, Timer.HEIGHT, HelpBox.HEIGHT)
-     */
-    public static final int HEIGHT = 600; 
-
-    /**
-     * Width of the grid part of the window, in pixels.
-     * Equal to NUM_COLS * Cell.SIZE.
-     */
-    public static final int GRID_WIDTH = NUM_COLS * Cell.SIZE;
-
-    /**
-     * Height of the grid part of the window, in pixels.
-     * Equal to NUM_ROWS * Cell.SIZE.
-     */
-    public static final int GRID_HEIGHT = NUM_ROWS * Cell.SIZE;
-
     /**
      * Margin around the edges of the canvas.
      */
@@ -91,17 +76,48 @@ public class Game extends Window implements EventListener {
      */
     private static final int SPACE = 25;
 
-    // A 2-D array of Cell objects to keep track of the board state.
-    private Cell[][] cells = new Cell[NUM_ROWS][NUM_COLS];
+    // Width of the game window, in pixels. Equal to 2*MARGIN + gridWidth
+    // or 2*MARGIN + 2*SPACE + StatusBox.WIDTH + Timer.WIDTH + HelpBox.WIDTH,
+    // whichever is larger.
+    private final int windowWidth;
+
+    // Height of the game window, in pixels. Equal to 2*MARGIN + SPACE
+    // + gridHeight + max(StatusBox.HEIGHT, Timer.HEIGHT, HelpBox.HEIGHT).
+    private final int windowHeight;
 
-    private int numMines = 0;    // number of mines deployed
-    private int numRevealed = 0; // number of cells revealed so far
+    // Width and height of the grid part of the window, in pixels. Boards
+    // bigger than the default size are shown through a scrolling view of the
+    // default size, so viewRows = min(numRows, NUM_ROWS) and likewise for
+    // viewCols.
+    private final int gridWidth;
+    private final int gridHeight;
 
-    // Whether or not the game has been won.
-    private boolean gameWon = false;
+    // The board that holds the state of every cell.
+    private final Board board;
 
-    // Whether or not the game has been lost
-    private boolean gameLost = false;
+    // The rules of the game, played on the board.
+    private final Engine engine;
+
+    // Follow the game to answer hints: the solver finds cells that are
+    // certainly safe, and the probability solver the safest guess when there
+    // are none. Both keep up with the game move by move, so that a hint
+    // never has to look over the whole board.
+    private final Solver solver;
+    private final ProbabilitySolver odds;
+    private final Random random = new Random();
+
+    // The widget that draws the visible part of the board.
+    private GridView grid;
+
+    // Keeps track of the frames drawn for this window.
+    private final RepaintScheduler frames = new RepaintScheduler();
+
+    // Background picture, already scaled to fit the window.
+    private final String background;
+
+    // The seed the mines were deployed from, if seeded is true.
+    private long seed;
+    private boolean seeded = false;
 
     // Name of the user playing the game.
     private String username;
@@ -124,165 +140,229 @@ public class Game extends Window implements EventListener {
     // The win label that appears when the only cells remaining contain a mine.
     private Label winLabel;
 
-    private int flagCount = 0;
-    private int numFlags = 0;
-
 
 
 
     /**
-     * Constructor: Initializes a new game, but does not deploy any mines, plant
-     * any flags, etc. The difficulty is either "easy", "medium", or "hard", and
-     * will be used to load the proper top scores file. Name is used as the
-     * user's name.
+     * Constructor: Initializes a new game on a board of the default size, but
+     * does not deploy any mines, plant any flags, etc. The difficulty is
+     * either "easy", "medium", or "hard", and will be used to load the proper
+     * top scores file. Name is used as the user's name.
      */
     public Game(String name, String difficulty) {
-        super("Minesweeper!", WIDTH, HEIGHT);
+        this(name, difficulty, NUM_ROWS, NUM_COLS);
+    }
+
+    /**
+     * Constructor: Initializes a new game on a board with the given number of
+     * rows and columns, but does not deploy any mines, plant any flags, etc.
+     * The window is sized to fit the board.
+     */
+    public Game(String name, String difficulty, int numRows, int numCols) {
+        this(name, difficulty, new Engine(new Board(numRows, numCols)));
+    }
+
+    /**
+     * Constructor: Picks up a saved game where it was left, with its board,
+     * user name, difficulty and elapsed time as they were when it was saved.
+     */
+    public Game(SavedGame saved) {
+        this(saved.getUsername(), saved.getDifficulty(), Engine.resume(saved.getBoard()));
+        this.seed = saved.getSeed();
+        this.seeded = saved.isSeeded();
+        timer.resetMillis(saved.getElapsedMillis());
+    }
+
+    // Set up the window around a game that is ready to be played.
+    private Game(String name, String difficulty, Engine engine) {
+        super("Minesweeper!", windowWidthFor(engine.getBoard().getNumCols()),
+              windowHeightFor(engine.getBoard().getNumRows()));
 
+        int numRows = engine.getBoard().getNumRows();
+        int numCols = engine.getBoard().getNumCols();
         this.username = name;
         this.difficulty = difficulty;
+        this.board = engine.getBoard();
+        this.engine = engine;
+        this.solver = new Solver(engine);
+        this.odds = new ProbabilitySolver(solver);
+        odds.setStepBudget(ProbabilitySolver.INTERACTIVE_STEPS);
+        odds.update();
+        this.gridWidth = viewSize(numCols, NUM_COLS);
+        this.gridHeight = viewSize(numRows, NUM_ROWS);
+        this.windowWidth = windowWidthFor(numCols);
+        this.windowHeight = windowHeightFor(numRows);
 
         // Create the background
         setBackgroundColor(Canvas.DARK_GRAY);
+        background = Sprites.scaled("cloud.jpg", windowWidth * 10 / 7, windowHeight * 4 / 3);
 
         // Create a border around the grid
-        Box border = new Box(MARGIN-1.5, MARGIN-1.5, GRID_WIDTH+3, GRID_HEIGHT+3);
+        Box border = new Box(MARGIN-1.5, MARGIN-1.5, gridWidth+3, gridHeight+3);
         border.setBackgroundColor(null);
         border.setBorderColor(Canvas.BLACK);
         add(border);
         // Create the info boxes
         help = new HelpBox(
-                           WIDTH - MARGIN - HelpBox.WIDTH,
-                           HEIGHT - MARGIN - HelpBox.HEIGHT);
+                           windowWidth - MARGIN - HelpBox.WIDTH,
+                           windowHeight - MARGIN - HelpBox.HEIGHT);
         add(help);
 
-        timer = new Timer( 350 - Timer.WIDTH/2, HEIGHT - MARGIN - Timer.HEIGHT);
+        timer = new Timer(windowWidth/2 - Timer.WIDTH/2, windowHeight - MARGIN - Timer.HEIGHT);
         add(timer);
-        timer.startCounting();
-        
 
-        status = new StatusBox(this, 50, HEIGHT - MARGIN - StatusBox.HEIGHT);
+        status = new StatusBox(this, MARGIN, windowHeight - MARGIN - StatusBox.HEIGHT);
         add(status);
 
-        // TODO: Create and add the other info boxes, besides help. Also,
-        // initialize and add all of the cells to form the game grid. As an
-        // example, I will add a label and a few mines, just to show how to add
-        // these kinds of widgets to the window. You will want to eventually
-        // replace these next few lines with real code.
-        // Here is a giant red label, centered exactly in the middle of where
-        // the game grid was meant to go...
-
-        // Create cells.
-        for(int row = 0; row < NUM_ROWS; row++) {
-            for(int col = 0; col < NUM_COLS; col++) {
-                cells[row][col] = new Cell(MARGIN + Cell.SIZE * col, MARGIN + Cell.SIZE * row);
-                add(cells[row][col]);
-            }
-        }
+        // Create the grid. One widget draws all of the visible cells.
+        grid = new GridView(board, MARGIN, MARGIN, gridWidth, gridHeight);
+        grid.setScheduler(frames);
+        add(grid);
+    }
+
+    // Size in pixels of the grid view along one side of a board with n cells,
+    // showing at most max cells at a time.
+    private static int viewSize(int n, int max) {
+        return Math.min(n, max) * Cell.SIZE;
+    }
+
+    // Width of the window needed for a board with the given number of columns.
+    private static int windowWidthFor(int numCols) {
+        int boxes = 2*SPACE + StatusBox.WIDTH + Timer.WIDTH + HelpBox.WIDTH;
+        return 2*MARGIN + Math.max(viewSize(numCols, NUM_COLS), boxes);
+    }
+
+    // Height of the window needed for a board with the given number of rows.
+    private static int windowHeightFor(int numRows) {
+        int boxes = Math.max(StatusBox.HEIGHT, Math.max(Timer.HEIGHT, HelpBox.HEIGHT));
+        return 2*MARGIN + SPACE + viewSize(numRows, NUM_ROWS) + boxes;
+    }
+
+    /**
+     * Get the scheduler that keeps track of the frames drawn for this game.
+     * Show the game with showAndAnimate(RepaintScheduler.FRAME_RATE).
+     */
+    public RepaintScheduler getRepaintScheduler() {
+        return frames;
+    }
+
+    /**
+     * Get the number of rows of cells on the game board.
+     */
+    public int getNumRows() {
+        return board.getNumRows();
+    }
+
+    /**
+     * Get the number of columns of cells on the game board.
+     */
+    public int getNumCols() {
+        return board.getNumCols();
     }
 
     /**
      * Get the number of mines that are deployed.
      */
     public int getNumMinesDeployed() {
-        return numMines;
+        return engine.getNumMines();
     }
 
     /**
      * Get the number of hidden cells remaining to be revealed.
      */
-    public int getNumCellsRemaining() {
-        return NUM_ROWS * NUM_COLS - numRevealed;
+    public long getNumCellsRemaining() {
+        return engine.getNumCellsRemaining();
     }
 
     /**
      * Deploy the given number of mines. This gets called once during game
      * setup. The game doesn't actually begin officially until the user clicks
-     * a cell, so the timer should not start yet.
+     * a cell, so the timer doesn't start until then.
      */
     public void deployMines(int mines) {
-        // TODO: Add code here to deploy mines by calling makeMine() on some of
-        // the cells, at random. Use StdRandom() for picking random numbers.
-        // Each cell also has a variable to track how many of its neighboring
-        // cells contain a mine, so you will need to update that variable too.
-        // See the increementNeighborMineCount() and setNeighborMineCount()
-        // functions in the Cell class, which are meant for this purpose
-
-        // Add mines to random cells depending on the difficulty.
-        while(numMines < mines) {
-            int n = (int)(Math.random() * (19));
-            int i = (int)(Math.random() * (29));
-
-            cells[n][i].makeMine();
-
-            // boundaries for the neighboring mine count.
-            if(n == 0 && i == 0) {
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-                cells[n+1][i+1].incrementNeighborMineCount();
-            }
-            if(n == 19 && i == 0) {
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i+1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-            }
-            if(n == 0 && i == 29) {
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n+1][i-1].incrementNeighborMineCount();
-            }
-            if(n == 19 && i == 29) {
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i-1].incrementNeighborMineCount();
-            }
-            if(n == 19 && i == 0) {
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i+1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-            }
-            if(n > 0 && n < 19 && i == 0) {
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i+1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n+1][i+1].incrementNeighborMineCount();
-                
-            }
-            if(n == 19 && i > 0 && i < 29) {
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-                cells[n-1][i-1].incrementNeighborMineCount();
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i+1].incrementNeighborMineCount();
-            }
-            if(n > 0 && n < 19 && i == 29) {
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n+1][i-1].incrementNeighborMineCount();
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n-1][i-1].incrementNeighborMineCount();
-                cells[n-1][i].incrementNeighborMineCount();
-            }
-            if(n == 0 && i > 0 && i < 29) {
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-                cells[n+1][i-1].incrementNeighborMineCount();
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n+1][i+1].incrementNeighborMineCount();
-            }
-            else if(n > 0 && n < 19 && i > 0 && i < 29) {
-                cells[n-1][i-1].incrementNeighborMineCount();
-                cells[n-1][i].incrementNeighborMineCount();
-                cells[n-1][i+1].incrementNeighborMineCount();
-                cells[n][i-1].incrementNeighborMineCount();
-                cells[n][i+1].incrementNeighborMineCount();
-                cells[n+1][i-1].incrementNeighborMineCount();
-                cells[n+1][i].incrementNeighborMineCount();
-                cells[n+1][i+1].incrementNeighborMineCount();
+        board.deployMines(mines);
+    }
+
+    /**
+     * Deploy the given number of mines, with StdRandom seeded from the given
+     * seed first. The same seed always gives the same board, so a game
+     * deployed this way can be saved without storing where its mines are.
+     */
+    public void deployMines(int mines, long seed) {
+        StdRandom.setSeed(seed);
+        board.deployMines(mines);
+        this.seed = seed;
+        this.seeded = true;
+        engine.setMoveLog(new MoveLog(seed, board.getNumRows(), board.getNumCols(), mines));
+    }
+
+    /**
+     * Deploy the given number of mines in a layout that can be cleared
+     * without guessing, found by a NoGuessGenerator from the given seed, and
+     * make the first click, in the middle of the board, for the user. The
+     * same seed always gives the same board. The mines don't come from
+     * StdRandom, so a saved copy of this game stores them.
+     * @return the generator, which tells how the search went.
+     */
+    public NoGuessGenerator deployNoGuess(int mines, long seed) {
+        NoGuessGenerator gen = new NoGuessGenerator(board.getNumRows(), board.getNumCols(), mines);
+        long k = gen.generate(seed);
+        gen.deploy(board, seed, k);
+        this.seed = seed;
+        this.seeded = false;
+        engine.setMoveLog(new MoveLog(seed, board.getNumRows(), board.getNumCols(), mines, k));
+        engine.reveal(gen.getStartRow(), gen.getStartCol());
+        return gen;
+    }
+
+    // Write the moves played so far to MoveLog.DEFAULT_FILE, if they were recorded.
+    private void saveReplay() {
+        MoveLog log = engine.getMoveLog();
+        if (log == null)
+            return;
+        try {
+            log.save(Paths.get(MoveLog.DEFAULT_FILE));
+        } catch (IOException e) {
+            System.err.println("Could not save replay: " + e);
+        }
+    }
+
+    // Save the game to SAVE_FILE so it can be resumed later. A game that is
+    // already over isn't worth resuming, so any saved copy is removed instead.
+    private void saveGame() {
+        Path file = Paths.get(SAVE_FILE);
+        try {
+            if (engine.isGameOver()) {
+                if (SavedGame.isSavedGame(file))
+                    Files.delete(file);
+                return;
             }
-            numMines++;
+            new SavedGame(board, seed, seeded, username, difficulty,
+                          timer.getElapsedMillis()).save(file);
+            StdOut.println("Game saved. To pick it up again, use: java Minesweeper resume");
+        } catch (IOException e) {
+            System.err.println("Could not save game: " + e);
+        }
+    }
+
+    // Outline a cell for the user: one that is certainly safe if the solver
+    // knows of any, or else the one least likely to hide a mine. The solvers
+    // are brought up to date after every move, so the update here usually
+    // has nothing left to do, and a hint only has to weigh the components
+    // the solvers already have.
+    private void showHint() {
+        if (engine.isGameOver())
+            return;
+        odds.update();
+        long i = solver.nextSafe();
+        if (i >= 0) {
+            grid.showHint(i, true);
+            return;
         }
-        return;  
+        odds.compute();
+        i = odds.getSafestCell(random);
+        if (i >= 0)
+            grid.showHint(i, odds.getProbability(i) == 0);
     }
 
     /**
@@ -300,140 +380,77 @@ public class Game extends Window implements EventListener {
 
     public void mouseClicked(double x, double y, String button) {
         // User clicked the mouse, see what they want to do.
-           
+        if (!Metrics.ENABLED) {
+            handleClick(x, y, button);
+            return;
+        }
+        long start = System.nanoTime();
+        handleClick(x, y, button);
+        Metrics.CLICK.record(System.nanoTime() - start);
+    }
+
+    // Make the move the user clicked for.
+    private void handleClick(double x, double y, String button) {
 
         // If game is over, then ignore the mouse click.
-        if (gameWon || gameLost)
+        if (engine.isGameOver())
             return;
 
-        // If the user middle-clicked, ignore it.
-        if (!button.equals("left") && !button.equals("right"))
+        // If the user clicked some other button, ignore it.
+        if (!button.equals("left") && !button.equals("right") && !button.equals("middle"))
             return;
             
 
-        // If the user clicked outside of the game grid, ignore it.
-        if (x < MARGIN || y < MARGIN
-            || x >= MARGIN + GRID_WIDTH || y >= MARGIN + GRID_HEIGHT) {
+        // Calculate which cell the user clicked. If the user clicked outside
+        // of the visible part of the game grid, ignore it.
+        long index = grid.cellAt(x, y);
+        if (index < 0)
             return;
-        }
-        
-        // Calculate which cell the user clicked.
-        int row = (int)((y - MARGIN) / Cell.SIZE);
-        int col = (int)((x - MARGIN) / Cell.SIZE);
+        int row = board.rowOf(index);
+        int col = board.colOf(index);
 
-        // TODO: Add code here to react to mouse clicks.
+        // The game begins with the first click on a cell. A resumed game
+        // carries on from the time it was saved with.
+        timer.startCounting();
 
-        // incriment the count for number of cells revealed.
-        if(!cells[row][col].isMine() && !cells[row][col].isRevealed() && button.equals("left") && !cells[row][col].isFlagged()) {
-            
-            if(cells[row][col].coastIsClear() && row > 1 && row < 19 && col > 1 && col < 29) {
-                fill(row, col);
-            }
-            else{
-                numRevealed++;
-                cells[row][col].reveal();
-            }
-        }
-             
-        if(cells[row][col].isMine() && button.equals("left") && !cells[row][col].isRevealed() && !cells[row][col].isFlagged()) { //if mine and right clicked lose game and shows mines.
-            cells[row][col].isMine();
-            cells[row][col].showMine();
-            gameLost = true;
-            cells[row][col].isFirstMine();
-            lostLabel = new Label(MARGIN + NUM_COLS * Cell.SIZE/2, 25, "YOU LOSE...SID FOUND YOU!");
+        // Left reveals the cell, right plants or removes a flag, and middle
+        // reveals all around a number whose mines are all flagged.
+        MoveResult result;
+        if (button.equals("left"))
+            result = engine.reveal(row, col);
+        else if (button.equals("middle"))
+            result = engine.chord(row, col);
+        else
+            result = engine.flag(row, col);
+
+        if (result.getStatus() == Engine.LOST) {
+            lostLabel = new Label(MARGIN + gridWidth/2, 25, "YOU LOSE...SID FOUND YOU!");
             lostLabel.setFont("Monospaced Bold", 24);
             lostLabel.setForegroundColor(Canvas.RED);
             lostLabel.setBackgroundColor(Canvas.DARK_GRAY);
             add(lostLabel);
-           
-            //reveal the rest of the mines.
-            for(int i = 0; i < NUM_ROWS;i++) {
-                for(int j = 0; j < NUM_COLS; j++) {
-                    if(cells[i][j].isMine) {
-                        cells[i][j].reveal();
-                        cells[i][j].showMine();
-                    }
-                }
-            }     
+            grid.showLossPicture();
         }
 
-        if(button.equals("right") && cells[row][col].isFlagged()) { // if cell is a flag and is right clicked, remove flag.
-            cells[row][col].unFlag();
-            if(cells[row][col].isMine()) {// update flag count.
-                flagCount--;
-            }
-            numFlags--;
-        }
-        else if(button.equals("right") && !cells[row][col].isRevealed() && !cells[row][col].isFlagged()) { //if mine and flagged, increase flag count.
-            cells[row][col].flag();
-            if(cells[row][col].isMine()) {
-                flagCount++;
-            }
-            numFlags++;
-        }
-       
         // show the win label if game is won.
-        if(numRevealed == 600 - numMines){
-            winLabel = new Label(MARGIN + NUM_COLS * Cell.SIZE/2,25, "YOU WON!");
-            winLabel.setFont("Monospaced Bold", 24);
-            winLabel.setForegroundColor(Canvas.RED);
-            winLabel.setBackgroundColor(Canvas.WHITE);
-            winLabel.setBorderColor(Canvas.BLACK);
-            add(winLabel);
-            gameWon = true;
-        }
-
-        //win game is user places the right flags.
-        if(flagCount == numMines && numMines == numFlags) {
-            gameWon = true;
-            winLabel = new Label(MARGIN + NUM_COLS * Cell.SIZE/2,25, "YOU WON!");
+        if (result.getStatus() == Engine.WON) {
+            winLabel = new Label(MARGIN + gridWidth/2,25, "YOU WON!");
             winLabel.setFont("Monospaced Bold", 24);
             winLabel.setForegroundColor(Canvas.RED);
             winLabel.setBackgroundColor(Canvas.WHITE);
             winLabel.setBorderColor(Canvas.BLACK);
             add(winLabel);
-            gameWon = true;
         }
         
-        //stop timer.
-        if(gameWon || gameLost)
+        //stop timer, and keep the moves so the game can be replayed.
+        if (result.isGameOver()) {
             timer.stopCounting();
-    }
-
-
-    public void fill(int n, int i) { //autofill function
-        //(n < 1 || n > 19 || i < 1 || i > 29
-
-        if (n < 0 || i < 0 || n > NUM_ROWS -1 || i > NUM_COLS -1) {
-            return;
-        }
-        if(cells[n][i].isRevealed())
-            return;
-        if(cells[n][i].isMine()) {
-            return;
+            saveReplay();
+        } else {
+            // Keep up with the move now, so the next hint doesn't have to.
+            odds.update();
         }
-            
-        else {
-            cells[n][i].reveal();
-            numRevealed++;
-        }
-        if(cells[n][i].coastIsClear()){
-            fill(n-1,i-1);
-            fill(n-1,i);
-            fill(n-1,i+1);
-            fill(n,i-1);
-            fill(n,i+1);
-            fill(n+1,i-1);
-            fill(n+1,i);
-            fill(n+1,i+1);
-        }
-            
     }
-            
-        
-    
-
-    
 
     /**
      * Respond to key presses. This function will be called each time the user
@@ -448,7 +465,36 @@ public class Game extends Window implements EventListener {
         switch (c) {
         case 'q': 
         case 'Q': 
-            hide(); // user wants to quit
+            saveGame(); // user wants to quit
+            saveReplay();
+            if (Metrics.ENABLED) {
+                StdOut.println("Drew " + frames + ".");
+                StdOut.print(Metrics.dump());
+            }
+            hide();
+            break;
+        case 'h':
+        case 'H':
+            showHint();
+            break;
+        case 'w': // scroll around boards too big to fit on the screen
+            grid.scrollPage(-1, 0);
+            break;
+        case 's':
+            grid.scrollPage(+1, 0);
+            break;
+        case 'a':
+            grid.scrollPage(0, -1);
+            break;
+        case 'd':
+            grid.scrollPage(0, +1);
+            break;
+        case '+':
+        case '=':
+            grid.zoomIn();
+            break;
+        case '-':
+            grid.zoomOut();
             break;
         default:
             break; // anything else is ignored
@@ -463,8 +509,13 @@ public class Game extends Window implements EventListener {
      * @param canvas the canvas on which to draw.
      */
     public void repaintWindowBackground(GUI.Canvas canvas) {
-
-        canvas.picture(0,0,"cloud.jpg", 1000, 800);
+        // The background is drawn first, so this is where a frame begins. The
+        // grid ends it.
+        frames.beginFrame();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        canvas.picture(0,0, background, windowWidth * 10 / 7, windowHeight * 4 / 3);
+        if (Metrics.ENABLED)
+            Metrics.BACKGROUND.record(System.nanoTime() - start);
 
     }
 }
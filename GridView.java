@@ -0,0 +1,283 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  GridView draws the part of the game grid that fits on the
+ *  screen, as a single widget.
+ *----------------------------------------------------------------*/
+
+import GUI.*;
+
+/**
+ * A <i>GridView</i> object draws a window onto a Board: a rectangle of cells,
+ * starting at some row and column, that can be scrolled around the board and
+ * zoomed in or out. Only the cells inside that rectangle are ever drawn, so
+ * the cost of a frame depends on the size of the view, not of the board.
+ *
+ * GridView keeps a look code (see Cell) for every visible cell, and a dirty
+ * bit for each one. The board tells the view whenever a cell is revealed or
+ * flagged, and the view marks that cell dirty if it is visible. When painting,
+ * only the looks of dirty cells are worked out again from the board.
+ * Scrolling or zooming marks the whole view dirty.
+ *
+ * The view can also outline one cell as a hint, drawn over the cells each
+ * frame until that cell changes.
+ *
+ * The grid is the last large widget drawn in a frame, so if the view is given
+ * a RepaintScheduler, it ends the scheduler's frame once the cells are drawn.
+ */
+public class GridView extends Widget implements CellListener {
+
+    /**
+     * Smallest size of a cell on the screen, in pixels, when zoomed out.
+     */
+    public static final int MIN_CELL_SIZE = 5;
+
+    /**
+     * Largest size of a cell on the screen, in pixels, when zoomed in.
+     */
+    public static final int MAX_CELL_SIZE = 40;
+
+    // The board being drawn.
+    private final Board board;
+
+    // Size of each cell on the screen, in pixels.
+    private int cellSize = Cell.SIZE;
+
+    // Row and column of the top left visible cell.
+    private int firstRow = 0;
+    private int firstCol = 0;
+
+    // Number of rows and columns of cells that are visible.
+    private int viewRows;
+    private int viewCols;
+
+    // Look of each visible cell, row by row, as of the last repaint.
+    private final byte[] looks;
+
+    // One bit per visible cell: whether its look may have changed.
+    private final long[] dirty;
+
+    // Whether any cell is dirty, i.e. whether the view needs repainting.
+    private boolean anyDirty;
+
+    // Pre-scaled picture shown over the grid once the game is lost, or null.
+    private String lossPicture;
+
+    // Cell outlined as a hint, or -1, and whether it is certainly safe.
+    private long hint = -1;
+    private boolean hintSafe;
+
+    // Told when each frame is finished, or null.
+    private RepaintScheduler scheduler;
+
+    /**
+     * Initialize a new view of the given board, drawn in a rectangle of the
+     * given size on the screen. The view starts at the top left of the board.
+     * @param board the board to draw.
+     * @param x the x coordinate of the view, in pixels.
+     * @param y the y coordinate of the view, in pixels.
+     * @param width the width of the view, in pixels.
+     * @param height the height of the view, in pixels.
+     */
+    public GridView(Board board, double x, double y, int width, int height) {
+        super(x, y, width, height);
+        this.board = board;
+        int maxCells = (width / MIN_CELL_SIZE) * (height / MIN_CELL_SIZE);
+        looks = new byte[maxCells];
+        dirty = new long[(maxCells + 63) >>> 6];
+        resize();
+        board.addCellListener(this);
+
+        // Scale the mine pictures for every zoom level up front.
+        for (int size = MIN_CELL_SIZE; size <= MAX_CELL_SIZE; size *= 2)
+            Cell.mineSprite(size);
+    }
+
+    // Work out how many cells fit at the current zoom, keep the view on the
+    // board, and mark everything dirty.
+    private void resize() {
+        viewRows = Math.min(board.getNumRows(), height / cellSize);
+        viewCols = Math.min(board.getNumCols(), width / cellSize);
+        firstRow = Math.max(0, Math.min(firstRow, board.getNumRows() - viewRows));
+        firstCol = Math.max(0, Math.min(firstCol, board.getNumCols() - viewCols));
+        markAllDirty();
+    }
+
+    /**
+     * Tell the given scheduler each time the cells have been drawn, so it can
+     * time the frame.
+     */
+    public void setScheduler(RepaintScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Mark every visible cell dirty, so all of them are looked up again on
+     * the next repaint.
+     */
+    public void markAllDirty() {
+        int n = viewRows * viewCols;
+        for (int w = 0; w < (n + 63) >>> 6; w++)
+            dirty[w] = -1L;
+        anyDirty = true;
+    }
+
+    /**
+     * Show Sid with his magnifying glass over the bottom right corner of the
+     * grid, once per frame, after the user loses.
+     */
+    public void showLossPicture() {
+        lossPicture = Sprites.scaled("found.png", 200, 200);
+        anyDirty = true;
+    }
+
+    /**
+     * Outline a cell as a hint, scrolling it into view if it is off the
+     * screen: in green if it is certainly safe, or in orange if it is only
+     * the best guess. The outline goes away once the cell changes.
+     * @param index the index of the cell to outline.
+     * @param safe whether the cell is certainly safe.
+     */
+    public void showHint(long index, boolean safe) {
+        hint = index;
+        hintSafe = safe;
+        int r = board.rowOf(index) - firstRow;
+        int c = board.colOf(index) - firstCol;
+        if (r < 0 || c < 0 || r >= viewRows || c >= viewCols)
+            scroll(r - viewRows / 2, c - viewCols / 2);
+        anyDirty = true;
+    }
+
+    /**
+     * Returns true if some visible cell changed since the last repaint.
+     */
+    public boolean needsRepaint() {
+        return anyDirty;
+    }
+
+    /**
+     * Called by the board when a cell changes. Marks the cell dirty if it is
+     * visible; cells outside the view are ignored.
+     * @param index the index of the cell that changed.
+     */
+    public void cellChanged(long index) {
+        if (index == hint) {
+            hint = -1;
+            anyDirty = true;
+        }
+        int r = board.rowOf(index) - firstRow;
+        int c = board.colOf(index) - firstCol;
+        if (r < 0 || c < 0 || r >= viewRows || c >= viewCols)
+            return;
+        int k = r * viewCols + c;
+        dirty[k >>> 6] |= 1L << k;
+        anyDirty = true;
+    }
+
+    /**
+     * Move the view by the given number of rows and columns. The view stops
+     * at the edges of the board.
+     */
+    public void scroll(int dRows, int dCols) {
+        firstRow += dRows;
+        firstCol += dCols;
+        resize();
+    }
+
+    /**
+     * Move the view by about half a screen in the given direction: -1, 0 or +1
+     * rows and columns.
+     */
+    public void scrollPage(int dRows, int dCols) {
+        scroll(dRows * Math.max(1, viewRows / 2), dCols * Math.max(1, viewCols / 2));
+    }
+
+    /**
+     * Make the cells twice as big on the screen, if they aren't already as
+     * big as they go.
+     */
+    public void zoomIn() {
+        if (cellSize * 2 <= MAX_CELL_SIZE) {
+            cellSize *= 2;
+            resize();
+        }
+    }
+
+    /**
+     * Make the cells half as big on the screen, if they aren't already as
+     * small as they go.
+     */
+    public void zoomOut() {
+        if (cellSize / 2 >= MIN_CELL_SIZE) {
+            cellSize /= 2;
+            resize();
+        }
+    }
+
+    /**
+     * Get the board index of the cell under the given screen coordinates, or
+     * -1 if there is no visible cell there.
+     * @param px the x coordinate, in pixels.
+     * @param py the y coordinate, in pixels.
+     */
+    public long cellAt(double px, double py) {
+        if (px < x || py < y)
+            return -1;
+        int c = (int)((px - x) / cellSize);
+        int r = (int)((py - y) / cellSize);
+        if (r >= viewRows || c >= viewCols)
+            return -1;
+        return board.index(firstRow + r, firstCol + c);
+    }
+
+    /**
+     * Paint the visible cells on the canvas. Don't call this directly, it is
+     * called by the GUI system automatically. The looks of any dirty cells are
+     * brought up to date first.
+     * @param canvas the canvas on which to draw.
+     */
+    public void repaint(GUI.Canvas canvas) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        if (anyDirty) {
+            for (int r = 0; r < viewRows; r++) {
+                long i = board.index(firstRow + r, firstCol);
+                int k = r * viewCols;
+                for (int c = 0; c < viewCols; c++, i++, k++) {
+                    if ((dirty[k >>> 6] & (1L << k)) != 0)
+                        looks[k] = (byte)Cell.lookOf(board, i);
+                }
+            }
+            for (int w = 0; w < dirty.length; w++)
+                dirty[w] = 0;
+            anyDirty = false;
+        }
+
+        for (int r = 0; r < viewRows; r++) {
+            int k = r * viewCols;
+            for (int c = 0; c < viewCols; c++, k++)
+                Cell.draw(canvas, looks[k], x + c * cellSize, y + r * cellSize, cellSize);
+        }
+
+        if (hint >= 0) {
+            int r = board.rowOf(hint) - firstRow;
+            int c = board.colOf(hint) - firstCol;
+            if (r >= 0 && c >= 0 && r < viewRows && c < viewCols) {
+                canvas.setPenColor(hintSafe ? Canvas.GREEN : Canvas.ORANGE);
+                canvas.setPenRadius(2.0);
+                canvas.rectangle(x + c * cellSize + 1, y + r * cellSize + 1,
+                                 cellSize - 2, cellSize - 2);
+                canvas.setPenRadius(1.0);
+            }
+        }
+
+        if (lossPicture != null)
+            canvas.picture(x + width - 100, y + height, lossPicture, 200, 200);
+
+        if (Metrics.ENABLED)
+            Metrics.GRID.record(System.nanoTime() - start);
+        if (scheduler != null)
+            scheduler.endFrame();
+    }
+}
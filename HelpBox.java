@@ -23,7 +23,7 @@ public class HelpBox extends Widget {
     /**
      * The height of the box as it is shown on the screen.
      */
-    public static final int HEIGHT = 75;
+    public static final int HEIGHT = 92;
 
     /**
      * Initialize a new HelpBox object. It will be drawn at the specified
@@ -53,9 +53,11 @@ public class HelpBox extends Widget {
 
         // Draw some help text.
         canvas.setFont(Canvas.DEFAULT_FONT);
-        canvas.textLeft(x + 15, y + 15, "Q - Quit");
-        canvas.textLeft(x + 15, y + 37.5, "Left button - Reveal");
-        canvas.textLeft(x + 15, y + 37.5 +22.5, "Right button - Flag");
+        canvas.textLeft(x + 15, y + 12, "Q - Save and quit");
+        canvas.textLeft(x + 15, y + 29, "Left button - Reveal");
+        canvas.textLeft(x + 15, y + 46, "Right button - Flag");
+        canvas.textLeft(x + 15, y + 63, "Middle button - Chord");
+        canvas.textLeft(x + 15, y + 80, "H - Hint");
     }
 
 }
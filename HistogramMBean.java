@@ -0,0 +1,59 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  HistogramMBean is what JMX shows of a Histogram.
+ *----------------------------------------------------------------*/
+
+/**
+ * The management interface of a Histogram, as seen through JMX, e.g. in
+ * jconsole under "Minesweeper". See Metrics.
+ */
+public interface HistogramMBean {
+
+    /**
+     * Get the unit values are measured in, e.g. "ns" or "cells".
+     */
+    String getUnit();
+
+    /**
+     * Get the number of values recorded.
+     */
+    long getCount();
+
+    /**
+     * Get the sum of every value recorded.
+     */
+    long getSum();
+
+    /**
+     * Get the mean of the values recorded, or 0 if there are none.
+     */
+    double getMean();
+
+    /**
+     * Get the largest value recorded, or 0 if there are none.
+     */
+    long getMax();
+
+    /**
+     * Get the median value, to within a factor of two.
+     */
+    long getP50();
+
+    /**
+     * Get the value 90% of values are at or below, to within a factor of two.
+     */
+    long getP90();
+
+    /**
+     * Get the value 99% of values are at or below, to within a factor of two.
+     */
+    long getP99();
+
+    /**
+     * Forget every value recorded so far.
+     */
+    void reset();
+}
@@ -12,11 +12,15 @@
 
 import GUI.*;
 import java.awt.Color;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * A LeaderBoard object keeps track of the top few names and scores for each
- * difficulty level. It can draw itself in a popup window or print to the
- * console.
+ * difficulty level. A score is the time a game took, in milliseconds, so two
+ * games only tie if they finished within the same millisecond. It can draw
+ * itself in a popup window or print to the console. The scores themselves
+ * are held in a ScoreStore, which can be shared by many games at once.
  */
 public class Leaderboard extends Window {
 
@@ -38,61 +42,103 @@ public class Leaderboard extends Window {
      */
     public static final int HEIGHT = 450;
 
-    // TODO: Add member variables here as needed, e.g. for the head of the
-    // linked list or for an array or several arrays. You can keep separate
-    // lists for each difficulty level, "easy", "medium", and "hard". Or you
-    // could just ignore difficulty levels and lump everyone in the same top
-    // scores list.
-    //
-    // Depending on how you want to keep track of the top names and scores, you
-    // might want to define a new class, e.g. PlayerScore, to hold information
-    // about each score, or to create a linked list. Create those classes in
-    // their own files, then add member variables here that use them.
+    // The scores shown in this window.
+    private final ScoreStore store;
 
     /**
-     * Initialize a new leaderboard. This does not load any data from the saved
-     * file, so the caller should call load() next.
+     * Initialize a new leaderboard that keeps MAX_NUM_SCORES scores for each
+     * difficulty level. This does not load any data from the saved file, so
+     * the caller should call load() next.
      */
     public Leaderboard() {
+        this(MAX_NUM_SCORES);
+    }
+
+    /**
+     * Initialize a new leaderboard that keeps the given number of scores for
+     * each difficulty level. Only the top MAX_NUM_SCORES are ever shown, but
+     * all of them are stored.
+     * @param capacity the most scores to keep per difficulty level.
+     */
+    public Leaderboard(int capacity) {
+        this(new ScoreStore(capacity, new ScoreLog("leaderboard.dat", "leaderboard.log")));
+    }
+
+    /**
+     * Initialize a new leaderboard that shows the scores in the given store.
+     * The store may be shared with other leaderboards, and with games running
+     * on other threads.
+     * @param store the scores to show.
+     */
+    public Leaderboard(ScoreStore store) {
         super("Minesweeper Leaderboard", WIDTH, HEIGHT);
-        // TODO: Add code here to initialize member variables as needed.
+        this.store = store;
     }
 
+    /**
+     * Get the scores shown in this window.
+     */
+    public ScoreStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the most scores kept for each difficulty level.
+     */
+    public int getCapacity() {
+        return store.getCapacity();
+    }
 
     /**
-     * Load top scores from leaderboard.dat
+     * Load top scores from leaderboard.dat, plus any scores saved to
+     * leaderboard.log since it was last rewritten.
      */
     public void load() {
-        In input = new In("leaderboard.dat");
-        while (input.hasNextLine()) {
-            String line = input.readLine();
-            String[] parts = line.split(" ", 3);
-            String difficulty = parts[0];
-            int score = Integer.parseInt(parts[1]);
-            String name = parts[2];
-            insert(difficulty, name, score);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            store.load();
+        } catch (IOException e) {
+            System.err.println("Could not load leaderboard: " + e);
         }
+        if (Metrics.ENABLED)
+            Metrics.LEADERBOARD_LOAD.record(System.nanoTime() - start);
     }
 
     /**
-     * Save top scores to leaderboard.dat
+     * Save top scores. Only the scores inserted since the last save are
+     * written, appended to leaderboard.log and forced to disk. The whole of
+     * leaderboard.dat is rewritten only now and then, in the background, once
+     * the log has grown long.
      */
     public void save() {
-        Out out = new Out("leaderboard.dat");
-        String[] levels = { "easy", "medium", "hard" };
-        for (String level : levels) {
-            int n = getNumPlayerScores(level);
-            for (int i = 0; i < n; i++) {
-                int score = getPlayerScore(level, i);
-                String name = getPlayerName(level, i);
-                // Ignore anything that is blank. Should not
-                // happen, but just in case...
-                if (score >= 0 && name != null && name.length() > 0) {
-                    out.printf("%s %d %s\n", level, score, name);
-                }
-            }
-            out.close();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            store.save();
+        } catch (IOException e) {
+            System.err.println("Could not save leaderboard: " + e);
         }
+        if (Metrics.ENABLED)
+            Metrics.LEADERBOARD_SAVE.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Rewrite leaderboard.dat with every score and empty leaderboard.log,
+     * right now.
+     */
+    public void compact() {
+        try {
+            store.compact();
+        } catch (IOException e) {
+            System.err.println("Could not compact leaderboard: " + e);
+        }
+    }
+
+    /**
+     * Get every difficulty level that has a list of scores, in the order they
+     * were first seen.
+     */
+    public List<String> getDifficulties() {
+        return store.getDifficulties();
     }
 
     /**
@@ -103,16 +149,24 @@ public class Leaderboard extends Window {
      * too poor), this function returns -1 instead.
      * @param difficulty the difficulty level
      * @param name the user's name
-     * @param score the user's score
+     * @param score the user's score, the time the game took in milliseconds
      * @return the ranking of the new score, or -1 if the score didn't make
      * the list.
      */
-    public int insert(String difficulty, String name, int score) {
-        // TODO: Add code here to insert the name and score into your linked
-        // list, array, or whatever. You can ignore the difficulty level. Or you
-        // can keep track of it in order to have different top score lists for
-        // each level. Or maybe penalize "easy" players?
-        return -1; // For now, just return -1 to indicate failure (delete me!)
+    public int insert(String difficulty, String name, long score) {
+        return store.insert(difficulty, name, score);
+    }
+
+    /**
+     * Get the position the given score would take in the list, where 0 is
+     * the best score, without inserting it. Returns -1 if the score is not
+     * good enough to make the list.
+     * @param difficulty the difficulty level
+     * @param score the score to look up, in milliseconds
+     * @return the ranking the score would have, or -1.
+     */
+    public int getRank(String difficulty, long score) {
+        return store.getScores(difficulty).rankOf(score);
     }
 
     /**
@@ -121,7 +175,7 @@ public class Leaderboard extends Window {
      * @return the number of scores known at that difficulty level
      */
     public int getNumPlayerScores(String difficulty) {
-        return 0; // TODO: Replace this code with something sensible.
+        return store.getScores(difficulty).size();
     }
 
     /**
@@ -130,10 +184,10 @@ public class Leaderboard extends Window {
      * @param difficulty the difficulty level
      * @return the list position to get, counting from zero.
      * @return the score at position i in the list for that difficulty
-     * level, or -1 if no such position exists.
+     * level, in milliseconds, or -1 if no such position exists.
      */
-    public int getPlayerScore(String difficulty, int i) {
-        return -1; // TODO: Replace this code with something sensible.
+    public long getPlayerScore(String difficulty, int i) {
+        return store.getScores(difficulty).getScore(i);
     }
 
     /**
@@ -145,32 +199,34 @@ public class Leaderboard extends Window {
      * level, or null if no such position exists.
      */
     public String getPlayerName(String difficulty, int i) {
-        return null; // TODO: Replace this code with something sensible.
+        return store.getScores(difficulty).getName(i);
     }
 
-    // Print all of the top scores to the console, with a nice header.
+    // Print all of the top scores to the console, with a nice header. Each
+    // column comes from a single snapshot, so scores inserted by other
+    // threads while printing can't mix two versions of a list.
     public void print() {
-        int numEasy = getNumPlayerScores("easy");
-        int numMedium = getNumPlayerScores("medium");
-        int numHard = getNumPlayerScores("hard");
+        ScoreList easy = store.getScores("easy");
+        ScoreList medium = store.getScores("medium");
+        ScoreList hard = store.getScores("hard");
 
-        StdOut.printf("   --======================= Top Scores =======================--\n");
-        StdOut.printf("   --== Easy ==--          --== Medium ==--        --== Hard ==--\n");
-        //             SCORE NAME(14)........  SCORE NAME(14)........  SCORE NAME(14)........
+        StdOut.printf("   --=========================== Top Scores ===========================--\n");
+        StdOut.printf("   --== Easy ==--              --== Medium ==--            --== Hard ==--\n");
+        //             SECONDS.. NAME(14)......  SECONDS.. NAME(14)......  SECONDS.. NAME(14)......
         for (int i = 0; i < MAX_NUM_SCORES; i++) {
             StdOut.printf("%2d.", (i+1)); // line number
-            if (i < numEasy)
-                StdOut.printf("%5d %-14s  ", getPlayerScore("easy", i), getPlayerName("easy", i));
+            if (i < easy.size())
+                StdOut.printf("%9.3f %-14s  ", easy.getScore(i) / 1000.0, easy.getName(i));
             else
-                StdOut.printf("   -  %-14s  ", "  -");
-            if (i < numMedium)
-                StdOut.printf("%5d %-14s  ", getPlayerScore("medium", i), getPlayerName("medium", i));
+                StdOut.printf("       -  %-14s  ", "  -");
+            if (i < medium.size())
+                StdOut.printf("%9.3f %-14s  ", medium.getScore(i) / 1000.0, medium.getName(i));
             else
-                StdOut.printf("   -  %-14s  ", "  -");
-            if (i < numHard)
-                StdOut.printf("%5d %-14s\n ", getPlayerScore("hard", i), getPlayerName("hard", i));
+                StdOut.printf("       -  %-14s  ", "  -");
+            if (i < hard.size())
+                StdOut.printf("%9.3f %-14s\n", hard.getScore(i) / 1000.0, hard.getName(i));
             else
-                StdOut.printf("   -  %-14s\n", "  -");
+                StdOut.printf("       -  %-14s\n", "  -");
         }
     }
 
@@ -192,7 +248,7 @@ public class Leaderboard extends Window {
     public static void main(String args[]) {
         Leaderboard b = new Leaderboard();
         b.load();
-        b.insert("medium", "test", 550);
+        b.insert("medium", "test", 550250);
         b.save();
         b.print();
         b.showAndWait();
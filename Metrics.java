@@ -0,0 +1,176 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Metrics holds the histograms that time the hot paths of the
+ *  game, and shows them through JMX and a periodic text dump.
+ *
+ *  Metrics are off unless turned on with a system property:
+ *    java -Dminesweeper.metrics=true Minesweeper
+ *  and printed every 10 seconds with:
+ *    java -Dminesweeper.metrics=true -Dminesweeper.metrics.dump=10 Minesweeper
+ *----------------------------------------------------------------*/
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <i>Metrics</i> keeps one Histogram for each of the paths worth watching:
+ *   - click: Game.mouseClicked, from the click to the move being made
+ *   - fill-time and fill-size: each Board.fill, in nanoseconds and in cells
+ *     revealed
+ *   - deploy: each Board.deployMines
+ *   - background, grid and frame: painting the Game window's background,
+ *     its grid of cells, and each whole frame (see RepaintScheduler)
+ *   - lb-load and lb-save: Leaderboard.load and Leaderboard.save
+ * The count of each histogram doubles as a counter of how often that path
+ * ran. Alongside them, the hits, misses and evictions of the shared
+ * PatternCache are shown too.
+ *
+ * Everything is off unless the minesweeper.metrics system property is true.
+ * ENABLED is a constant, so when it is false the JIT drops the timing code
+ * at every call site, and each site costs nothing. When it is true, each
+ * histogram is registered with the platform MBean server as
+ * "Minesweeper:type=Histogram,name=...", and the shared pattern cache as
+ * "Minesweeper:type=PatternCache,name=shared", where jconsole can show
+ * them, and if minesweeper.metrics.dump is set to some number of seconds,
+ * all of them are printed that often from a background thread.
+ */
+public class Metrics {
+
+    /**
+     * Whether metrics are being kept, from the minesweeper.metrics system
+     * property.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+
+    /**
+     * Time to handle a mouse click on a game, in nanoseconds.
+     */
+    public static final Histogram CLICK = new Histogram("click", "ns");
+
+    /**
+     * Time taken by each flood fill, in nanoseconds.
+     */
+    public static final Histogram FILL_TIME = new Histogram("fill-time", "ns");
+
+    /**
+     * Number of cells revealed by each flood fill.
+     */
+    public static final Histogram FILL_SIZE = new Histogram("fill-size", "cells");
+
+    /**
+     * Time taken to deploy the mines on a board, in nanoseconds.
+     */
+    public static final Histogram DEPLOY = new Histogram("deploy", "ns");
+
+    /**
+     * Time to paint the background of a game window, in nanoseconds.
+     */
+    public static final Histogram BACKGROUND = new Histogram("background", "ns");
+
+    /**
+     * Time to paint the grid of cells on a game window, in nanoseconds.
+     */
+    public static final Histogram GRID = new Histogram("grid", "ns");
+
+    /**
+     * Time to paint a whole frame of a game window, in nanoseconds.
+     */
+    public static final Histogram FRAME = new Histogram("frame", "ns");
+
+    /**
+     * Time to load the leaderboard, in nanoseconds.
+     */
+    public static final Histogram LEADERBOARD_LOAD = new Histogram("lb-load", "ns");
+
+    /**
+     * Time to save the leaderboard, in nanoseconds.
+     */
+    public static final Histogram LEADERBOARD_SAVE = new Histogram("lb-save", "ns");
+
+    // Every histogram, in the order they are printed.
+    private static final Histogram[] ALL = {
+        CLICK, FILL_TIME, FILL_SIZE, DEPLOY, BACKGROUND, GRID, FRAME,
+        LEADERBOARD_LOAD, LEADERBOARD_SAVE
+    };
+
+    static {
+        if (ENABLED) {
+            register();
+            long period = Long.getLong("minesweeper.metrics.dump", 0);
+            if (period > 0)
+                dumpEvery(period);
+        }
+    }
+
+    // Register every histogram, and the shared pattern cache, with the
+    // platform MBean server.
+    private static void register() {
+        for (Histogram h : ALL)
+            register(h, "Minesweeper:type=Histogram,name=" + h.getName());
+        register(PatternCache.shared(), "Minesweeper:type=PatternCache,name=shared");
+    }
+
+    private static void register(Object bean, String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName))
+                server.registerMBean(bean, objectName);
+        } catch (JMException e) {
+            System.err.println("Could not register metrics: " + e);
+        }
+    }
+
+    // Print every histogram every period seconds, on a daemon thread.
+    private static void dumpEvery(long period) {
+        ScheduledExecutorService dumper =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "metrics-dump");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        dumper.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                StdOut.print(dump());
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get every histogram.
+     */
+    public static Histogram[] getHistograms() {
+        return ALL.clone();
+    }
+
+    /**
+     * Describe every histogram, one per line, then the shared pattern cache.
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--== Metrics ==--\n");
+        for (Histogram h : ALL)
+            sb.append(h).append('\n');
+        sb.append(PatternCache.shared()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Forget every value recorded so far.
+     */
+    public static void reset() {
+        for (Histogram h : ALL)
+            h.reset();
+    }
+}
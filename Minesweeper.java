@@ -12,22 +12,56 @@
  *
  *  Example: java Minesweeper 1234 # This repeats the game with seed 1234
  *
+ *  Example: java Minesweeper 1234 100 200 # Same, on a 100x200 board
+ *
+ *  Example: java Minesweeper resume # Picks up the game saved in save.dat
+ *
+ *  Example: java Minesweeper 1234 noguess # A board that needs no guesses
+ *
  *----------------------------------------------------------------*/
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 public class Minesweeper {
 
 
     /**
      * The main() program for the minesweeper game. It takes one optional
      * parameter, an integer seed used for randomizing the mines. If you use the
-     * same seed twice, you should get the exact same deployment of mines.
+     * same seed twice, you should get the exact same deployment of mines. The
+     * seed can be followed by a number of rows and columns to play on a board
+     * of that size instead of the size chosen on the title screen. Instead of
+     * a seed, the parameter can be "resume", to pick up the game that was
+     * saved when the user last quit. Adding "noguess" as the last parameter
+     * deals a board that can be cleared without guessing.
      */
     public static void main(String args[]) {
 
+        // A trailing "noguess" asks for a board that needs no guesses.
+        boolean noGuess = args.length > 0 && args[args.length - 1].equals("noguess");
+        if (noGuess)
+            args = Arrays.copyOf(args, args.length - 1);
+
         // Print a customized welcome message.
         String username = System.getenv("USER");
         StdOut.println("--=== Welcome to Minesweeper, " + username + "! ===--");
 
+        // Pick up a saved game, if the user asked to.
+        if (args.length > 0 && args[0].equals("resume")) {
+            SavedGame saved;
+            try {
+                saved = SavedGame.load(Paths.get(Game.SAVE_FILE));
+            } catch (IOException e) {
+                System.out.println("There is no saved game to resume: " + e.getMessage());
+                return;
+            }
+            Game game = new Game(saved);
+            game.showAndAnimate(RepaintScheduler.FRAME_RATE);
+            return;
+        }
+
         // Initialize the random number generator. We either use a random seed
         // provided as an optional command-line argument, or we print out the
         // seed being used so the user can play the exact same game again if
@@ -46,7 +80,7 @@ public class Minesweeper {
         // Create the "splash" title screen, and wait for the user to make a
         // selection.
         TitleScreen t = new TitleScreen();
-        t.showAndAnimate(1.0);
+        t.showAndAnimate(RepaintScheduler.FRAME_RATE);
 
         // If the user wants to quit, do so.
         String selection = t.getSelection();
@@ -55,25 +89,62 @@ public class Minesweeper {
             return;
         }
 
+        // Pick the board size, from the command line if one was given.
+        int numRows = t.getNumRows();
+        int numCols = t.getNumCols();
+        if (args.length >= 3) {
+            numRows = Integer.parseInt(args[1]);
+            numCols = Integer.parseInt(args[2]);
+        }
+
         StdRandom.setSeed(seed);
 
         // Create a game, and deploy the correct number of mines.
-        Game game = new Game(username, selection);
+        Game game = new Game(username, selection, numRows, numCols);
 
         StdRandom.setSeed(seed);
 
+        int mines;
         if (selection.equals("hard"))
-            game.deployMines(100);
+            mines = minesFor(100, numRows, numCols);
         else if (selection.equals("medium"))
-            game.deployMines(20);
+            mines = minesFor(20, numRows, numCols);
         else if (selection.equals("easy"))
-            game.deployMines(5);
+            mines = minesFor(5, numRows, numCols);
         else
-            game.deployMines(StdRandom.uniform(5, 100));
+            mines = minesFor(StdRandom.uniform(5, 100), numRows, numCols);
+        if (noGuess) {
+            // The first click and its neighbors are kept clear, so there is
+            // room for fewer mines.
+            mines = (int)Math.min(mines, NoGuessGenerator.maxMines(numRows, numCols));
+            NoGuessGenerator gen = game.deployNoGuess(mines, seed);
+            if (gen.isSolvable())
+                System.out.println("This board can be cleared without guessing ("
+                                   + gen.getNumTried() + " candidates tried in "
+                                   + gen.getElapsedMillis() + " ms).");
+            else
+                System.out.println("No board without guesses was found ("
+                                   + gen.getNumTried() + " candidates tried); this one may need a guess.");
+        } else {
+            game.deployMines(mines, seed);
+        }
 
-        // Wait for the user to play the game. We turn on animation so the timer
-        // display is updated properly.
-        game.showAndAnimate(10);
+        // Wait for the user to play the game. The window is drawn again after
+        // every click anyway, so animating once a second is enough to keep the
+        // timer display up to date.
+        game.showAndAnimate(RepaintScheduler.FRAME_RATE);
+    }
+
+    /**
+     * Scale a mine count meant for the default size board to a board with
+     * the given number of rows and columns, keeping the same density of mines.
+     * On the default size board this just returns the given count.
+     */
+    public static int minesFor(int mines, int numRows, int numCols) {
+        long defaultCells = (long)Game.NUM_ROWS * Game.NUM_COLS;
+        long numCells = (long)numRows * numCols;
+        long scaled = mines * numCells / defaultCells;
+        return (int)Math.min(Math.max(scaled, 1), numCells - 1);
     }
 
 }
@@ -0,0 +1,326 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  MoveLog records every move of a game, with when it was made and
+ *  what it did, so the game can be replayed exactly.
+ *----------------------------------------------------------------*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A <i>MoveLog</i> object records the moves made on an Engine, in order. Along
+ * with the seed, size and number of mines of the board, that is enough to play
+ * the whole game again exactly (see Replay). Each move records:
+ *   - what kind of move it was: REVEAL, FLAG or CHORD
+ *   - the cell it was made on
+ *   - when it was made, in milliseconds since the log was started
+ *   - what it did: how many cells it revealed and the game's status after it
+ * so a replay can check that every move does the same thing it did the first
+ * time.
+ *
+ * Moves are delta-encoded into a byte array as they are recorded. The first
+ * number of each move packs the time since the previous move together with
+ * the kind of move and the status; the second is the distance in cells from
+ * the previous move's cell; the third is the number of cells revealed. Each
+ * number is written seven bits to a byte, so a typical move, a few seconds
+ * after the last one and near it on the board, takes four or five bytes.
+ */
+public class MoveLog {
+
+    /**
+     * Kind of move: Engine.reveal().
+     */
+    public static final int REVEAL = 0;
+
+    /**
+     * Kind of move: Engine.flag().
+     */
+    public static final int FLAG = 1;
+
+    /**
+     * Kind of move: Engine.chord().
+     */
+    public static final int CHORD = 2;
+
+    /**
+     * The first four bytes of every saved move log: "MSRP".
+     */
+    public static final int MAGIC = 0x4D535250;
+
+    /**
+     * The version of the format written by this class. Version 1 logs, which
+     * have no no-guess candidate, can still be read.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * File the moves of the last game played are written to, and that
+     * Replay reads by default.
+     */
+    public static final String DEFAULT_FILE = "replay.dat";
+
+    // The board the moves were made on.
+    private final long seed;
+    private final int numRows;
+    private final int numCols;
+    private final int numMines;
+
+    // The NoGuessGenerator candidate the mines were dealt from, or -1 if they
+    // were deployed by Board.deployMines.
+    private final long candidate;
+
+    // The encoded moves. Only the first size bytes are in use.
+    private byte[] bytes = new byte[256];
+    private int size = 0;
+    private int numMoves = 0;
+
+    // The previous move's time and cell, which the next move is encoded
+    // relative to.
+    private long lastTime = 0;
+    private long lastCell = 0;
+
+    // When the log was started, from System.nanoTime().
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Initialize a new, empty log for a game on a board of the given size with
+     * the given number of mines deployed by Board.deployMines with StdRandom
+     * seeded from the given seed.
+     */
+    public MoveLog(long seed, int numRows, int numCols, int numMines) {
+        this(seed, numRows, numCols, numMines, -1);
+    }
+
+    /**
+     * Initialize a new, empty log for a game on a board dealt by a
+     * NoGuessGenerator from the given seed and candidate, or by
+     * Board.deployMines from the seed if the candidate is -1.
+     */
+    public MoveLog(long seed, int numRows, int numCols, int numMines, long candidate) {
+        this.seed = seed;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numMines = numMines;
+        this.candidate = candidate;
+    }
+
+    /**
+     * Get the seed the board's mines were deployed from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of rows of the board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Get the number of columns of the board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Get the number of mines deployed on the board.
+     */
+    public int getNumMines() {
+        return numMines;
+    }
+
+    /**
+     * Get the NoGuessGenerator candidate the mines were dealt from, or -1 if
+     * they were deployed by Board.deployMines.
+     */
+    public long getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Get the number of moves recorded.
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * Get the number of bytes the recorded moves take.
+     */
+    public int getNumBytes() {
+        return size;
+    }
+
+    /**
+     * Record a move made just now.
+     * @param kind REVEAL, FLAG or CHORD.
+     * @param row the row of the cell the move was made on.
+     * @param col the column of the cell the move was made on.
+     * @param result what the move did.
+     */
+    public void record(int kind, int row, int col, MoveResult result) {
+        record(kind, row, col, (System.nanoTime() - startNanos) / 1000000, result);
+    }
+
+    /**
+     * Record a move made at the given time.
+     * @param kind REVEAL, FLAG or CHORD.
+     * @param row the row of the cell the move was made on.
+     * @param col the column of the cell the move was made on.
+     * @param timeMillis when the move was made, in milliseconds since the
+     * game started. Times must never go backwards.
+     * @param result what the move did.
+     */
+    public void record(int kind, int row, int col, long timeMillis, MoveResult result) {
+        if (size + 30 > bytes.length)
+            bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+        long cell = (long)row * numCols + col;
+        long delta = cell - lastCell;
+        long dt = Math.max(0, timeMillis - lastTime);
+        putVarLong((dt << 4) | (result.getStatus() << 2) | kind);
+        putVarLong((delta << 1) ^ (delta >> 63)); // zigzag, so small negatives stay small
+        putVarLong(result.getCellsRevealed());
+        lastTime += dt;
+        lastCell = cell;
+        numMoves++;
+    }
+
+    // Append a number from 0 up, seven bits to a byte, low bits first, with
+    // the high bit of each byte set if more bytes follow.
+    private void putVarLong(long n) {
+        while ((n & ~0x7FL) != 0) {
+            bytes[size++] = (byte)((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        bytes[size++] = (byte)n;
+    }
+
+    /**
+     * Start reading the recorded moves from the beginning.
+     */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    /**
+     * A <i>MoveLog.Reader</i> steps through the moves of a log in order. After
+     * each call to next(), the fields hold the move just read. One Reader is
+     * reused for every move, so reading allocates nothing.
+     */
+    public class Reader {
+
+        /**
+         * The kind of move: REVEAL, FLAG or CHORD.
+         */
+        public int kind;
+
+        /**
+         * The cell the move was made on.
+         */
+        public int row, col;
+
+        /**
+         * When the move was made, in milliseconds since the game started.
+         */
+        public long timeMillis;
+
+        /**
+         * What the move did: how many cells it revealed, and the status of the
+         * game after it.
+         */
+        public long cellsRevealed;
+        public int status;
+
+        // Position of the next move in the bytes, and the previous cell.
+        private int pos = 0;
+        private long cell = 0;
+
+        /**
+         * Read the next move into the fields.
+         * @return false if there are no more moves.
+         */
+        public boolean next() {
+            if (pos >= size)
+                return false;
+            long head = getVarLong();
+            long zigzag = getVarLong();
+            cellsRevealed = getVarLong();
+            kind = (int)(head & 3);
+            status = (int)((head >>> 2) & 3);
+            timeMillis += head >>> 4;
+            cell += (zigzag >>> 1) ^ -(zigzag & 1);
+            row = (int)(cell / numCols);
+            col = (int)(cell % numCols);
+            return true;
+        }
+
+        private long getVarLong() {
+            long n = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                n |= (long)(b & 0x7F) << shift;
+                if (b >= 0)
+                    return n;
+            }
+        }
+    }
+
+    /**
+     * Write the log to the given file, replacing it in one atomic step.
+     */
+    public void save(Path file) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(size + 40);
+        DataOutputStream out = new DataOutputStream(buf);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0); // reserved
+        out.writeLong(seed);
+        out.writeInt(numRows);
+        out.writeInt(numCols);
+        out.writeInt(numMines);
+        out.writeLong(candidate);
+        out.writeInt(numMoves);
+        out.writeInt(size);
+        out.write(bytes, 0, size);
+        out.flush();
+        ScoreLog.writeAtomically(file, ByteBuffer.wrap(buf.toByteArray()));
+    }
+
+    /**
+     * Read a log written by save().
+     * @throws IOException if the file can't be read or is not a move log.
+     */
+    public static MoveLog load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a move log");
+            int version = in.readShort();
+            if (version != 1 && version != VERSION)
+                throw new IOException(file + " has unknown version " + version);
+            in.readShort();
+            long seed = in.readLong();
+            int numRows = in.readInt();
+            int numCols = in.readInt();
+            int numMines = in.readInt();
+            long candidate = version == 1 ? -1 : in.readLong();
+            MoveLog log = new MoveLog(seed, numRows, numCols, numMines, candidate);
+            log.numMoves = in.readInt();
+            log.size = in.readInt();
+            log.bytes = new byte[log.size];
+            in.readFully(log.bytes);
+            return log;
+        }
+    }
+}
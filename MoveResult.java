@@ -0,0 +1,79 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  MoveResult reports what a single move did to a game.
+ *----------------------------------------------------------------*/
+
+/**
+ * A <i>MoveResult</i> object describes what changed when a move was made on
+ * an Engine: how many cells were revealed, whether a flag was planted or
+ * removed, and what state the game is in afterwards. MoveResult objects never
+ * change once they are made.
+ */
+public class MoveResult {
+
+    /**
+     * The result of a move that changed nothing, on a game still in progress.
+     */
+    public static final MoveResult NOTHING = new MoveResult(0, 0, Engine.PLAYING);
+
+    // Number of cells revealed by the move, not counting mines shown at the
+    // end of a lost game.
+    private final long cellsRevealed;
+
+    // +1 if a flag was planted, -1 if one was removed, otherwise 0.
+    private final int flagChange;
+
+    // The state of the game after the move.
+    private final int status;
+
+    /**
+     * Initialize a new result.
+     * @param cellsRevealed the number of cells the move revealed.
+     * @param flagChange +1 if a flag was planted, -1 if one was removed.
+     * @param status Engine.PLAYING, Engine.WON or Engine.LOST.
+     */
+    public MoveResult(long cellsRevealed, int flagChange, int status) {
+        this.cellsRevealed = cellsRevealed;
+        this.flagChange = flagChange;
+        this.status = status;
+    }
+
+    /**
+     * Get the number of cells the move revealed.
+     */
+    public long getCellsRevealed() {
+        return cellsRevealed;
+    }
+
+    /**
+     * Get +1 if the move planted a flag, -1 if it removed one, otherwise 0.
+     */
+    public int getFlagChange() {
+        return flagChange;
+    }
+
+    /**
+     * Get the state of the game after the move: Engine.PLAYING, Engine.WON or
+     * Engine.LOST.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns true if the move changed anything at all.
+     */
+    public boolean changedAnything() {
+        return cellsRevealed != 0 || flagChange != 0 || status != Engine.PLAYING;
+    }
+
+    /**
+     * Returns true if this move ended the game, one way or the other.
+     */
+    public boolean isGameOver() {
+        return status != Engine.PLAYING;
+    }
+}
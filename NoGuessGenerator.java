@@ -0,0 +1,301 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  NoGuessGenerator deals boards that can be cleared from the first
+ *  click without ever having to guess.
+ *
+ *  You can try the generator using:
+ *    java NoGuessGenerator seed rows cols mines [maxCandidates]
+ *  for example, an expert board:
+ *    java NoGuessGenerator 1234 16 30 99
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A <i>NoGuessGenerator</i> object finds mine layouts that a Solver can clear
+ * completely, starting from a fixed first click in the middle of the board,
+ * without ever getting stuck. A game on such a board is decided by skill and
+ * speed alone, never by a coin toss, so its time means something on the
+ * Leaderboard.
+ *
+ * Candidate layouts are numbered 0, 1, 2, ... Candidate k deploys its mines
+ * with a Random seeded from the game's seed and k, keeping the first click
+ * and its neighbors clear, so any candidate can be dealt again from just the
+ * seed and its number. Candidates are tried in batches, in parallel on a
+ * ForkJoinPool, and the result is the lowest-numbered candidate that can be
+ * solved. Every candidate below it is always played out to the end, and
+ * which candidates happen to finish first doesn't matter, so the same seed
+ * always gives the same board, however fast the machine.
+ *
+ * The search's budget is a number of candidates, not a time. If none of
+ * them can be solved, the result is candidate 0, which is still safe to
+ * start on but may need guesses.
+ */
+public class NoGuessGenerator {
+
+    /**
+     * Number of candidates tried unless another is given. An expert board
+     * takes a few milliseconds per candidate, and usually one of the first
+     * few dozen can be solved.
+     */
+    public static final long DEFAULT_MAX_CANDIDATES = 1000;
+
+    // The boards to deal.
+    private final int numRows;
+    private final int numCols;
+    private final int numMines;
+
+    // Where candidates are tried.
+    private final ForkJoinPool pool;
+
+    // Number of candidates to search.
+    private long maxCandidates = DEFAULT_MAX_CANDIDATES;
+
+    // Results of the last generate().
+    private long candidate = 0;
+    private boolean solvable = false;
+    private long numTried = 0;
+    private long elapsedMillis = 0;
+
+    /**
+     * Initialize a generator for boards of the given size with the given
+     * number of mines, which tries candidates on the common ForkJoinPool.
+     */
+    public NoGuessGenerator(int numRows, int numCols, int numMines) {
+        this(numRows, numCols, numMines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initialize a generator for boards of the given size with the given
+     * number of mines, which tries candidates on the given pool.
+     * @throws IllegalArgumentException if there are more mines than
+     * maxMines() allows.
+     */
+    public NoGuessGenerator(int numRows, int numCols, int numMines, ForkJoinPool pool) {
+        long most = maxMines(numRows, numCols);
+        if (numMines < 0 || numMines > most)
+            throw new IllegalArgumentException("a " + numRows + "x" + numCols
+                                               + " board without guesses has room for at most "
+                                               + most + " mines, not " + numMines);
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numMines = numMines;
+        this.pool = pool;
+    }
+
+    /**
+     * Get the most mines a board of the given size can hold with the first
+     * click and its neighbors kept clear.
+     */
+    public static long maxMines(int numRows, int numCols) {
+        return (long)numRows * numCols - Math.min(3, numRows) * Math.min(3, numCols);
+    }
+
+    /**
+     * Set the number of candidates generate() searches before giving up.
+     */
+    public void setMaxCandidates(long maxCandidates) {
+        if (maxCandidates < 1)
+            throw new IllegalArgumentException("maxCandidates must be positive");
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Get the row of the first click, which every candidate keeps clear.
+     */
+    public int getStartRow() {
+        return numRows / 2;
+    }
+
+    /**
+     * Get the column of the first click, which every candidate keeps clear.
+     */
+    public int getStartCol() {
+        return numCols / 2;
+    }
+
+    // The seed of candidate k's Random: the game's seed and k, scrambled so
+    // that neighboring candidates get unrelated streams.
+    private static long candidateSeed(long seed, long k) {
+        long z = seed + (k + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Deploy the mines of the given candidate for the given seed on a board
+     * with no mines yet.
+     */
+    public void deploy(Board board, long seed, long k) {
+        long start = board.index(getStartRow(), getStartCol());
+        board.deployMines(numMines, new Random(candidateSeed(seed, k)), start);
+    }
+
+    // Everything one thread needs to try candidates, reused from one to the
+    // next.
+    private class Worker {
+        final Board board = new Board(numRows, numCols);
+        final Engine engine = new Engine(board);
+        final Solver solver = new Solver(engine);
+
+        // Deal candidate k and play it with the solver, from the first click.
+        // Returns true if the solver clears the board.
+        boolean solve(long seed, long k) {
+            board.clear();
+            deploy(board, seed, k);
+            engine.restart();
+            solver.reset();
+            engine.reveal(getStartRow(), getStartCol());
+            while (!engine.isGameOver()) {
+                solver.update();
+                long i = solver.nextSafe();
+                if (i < 0)
+                    return false;
+                engine.reveal(board.rowOf(i), board.colOf(i));
+            }
+            return engine.getStatus() == Engine.WON;
+        }
+    }
+
+    private final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+        protected Worker initialValue() {
+            return new Worker();
+        }
+    };
+
+    // Tries the candidates from lo up to (but not including) hi, splitting
+    // the range in half until it is one candidate. A candidate is skipped if
+    // a lower-numbered one has already been solved.
+    private class Candidates extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long seed, lo, hi;
+        final AtomicLong best;
+        final AtomicLong tried;
+
+        Candidates(long seed, long lo, long hi, AtomicLong best, AtomicLong tried) {
+            this.seed = seed;
+            this.lo = lo;
+            this.hi = hi;
+            this.best = best;
+            this.tried = tried;
+        }
+
+        protected void compute() {
+            if (hi - lo == 1) {
+                if (lo > best.get())
+                    return;
+                tried.incrementAndGet();
+                if (!worker.get().solve(seed, lo))
+                    return;
+                long b = best.get();
+                while (lo < b && !best.compareAndSet(b, lo))
+                    b = best.get();
+                return;
+            }
+            long mid = lo + (hi - lo) / 2;
+            invokeAll(new Candidates(seed, lo, mid, best, tried),
+                      new Candidates(seed, mid, hi, best, tried));
+        }
+    }
+
+    /**
+     * Search for the lowest-numbered candidate for the given seed that can be
+     * solved without guessing, among the first getMaxCandidates() of them.
+     * The results are then available from getCandidate(), isSolvable(),
+     * getNumTried() and getElapsedMillis().
+     * @return the candidate to deal with deploy().
+     */
+    public long generate(long seed) {
+        long startNanos = System.nanoTime();
+        AtomicLong best = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong tried = new AtomicLong();
+        int batch = 4 * pool.getParallelism();
+        for (long lo = 0; lo < maxCandidates && best.get() == Long.MAX_VALUE; lo += batch) {
+            long hi = Math.min(lo + batch, maxCandidates);
+            pool.invoke(new Candidates(seed, lo, hi, best, tried));
+        }
+        solvable = best.get() != Long.MAX_VALUE;
+        candidate = solvable ? best.get() : 0;
+        numTried = tried.get();
+        elapsedMillis = (System.nanoTime() - startNanos) / 1000000;
+        return candidate;
+    }
+
+    /**
+     * Get the number of candidates generate() searches.
+     */
+    public long getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Get the candidate chosen by the last generate().
+     */
+    public long getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Returns true if the last generate() found a candidate that can be
+     * solved without guessing, or false if none of the candidates searched
+     * could be.
+     */
+    public boolean isSolvable() {
+        return solvable;
+    }
+
+    /**
+     * Get the number of candidates the last generate() tried. Candidates are
+     * tried in parallel, so this can be more than getCandidate() + 1.
+     */
+    public long getNumTried() {
+        return numTried;
+    }
+
+    /**
+     * Get how long the last generate() took, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * A main() function, which generates a board and reports how the search
+     * went.
+     */
+    public static void main(String args[]) {
+        if (args.length < 4) {
+            StdOut.println("Usage: java NoGuessGenerator seed rows cols mines [maxCandidates]");
+            return;
+        }
+        long seed = Long.parseLong(args[0]);
+        int numRows = Integer.parseInt(args[1]);
+        int numCols = Integer.parseInt(args[2]);
+        int numMines = Integer.parseInt(args[3]);
+        if (numMines > maxMines(numRows, numCols)) {
+            StdOut.printf("At most %d mines fit on a %dx%d board with the first click clear\n",
+                          maxMines(numRows, numCols), numRows, numCols);
+            return;
+        }
+
+        NoGuessGenerator gen = new NoGuessGenerator(numRows, numCols, numMines);
+        if (args.length > 4)
+            gen.setMaxCandidates(Long.parseLong(args[4]));
+        long k = gen.generate(seed);
+        if (gen.isSolvable())
+            StdOut.printf("Candidate %d can be solved without guessing\n", k);
+        else
+            StdOut.printf("None of the first %d candidates could be solved; using candidate 0\n",
+                          gen.getMaxCandidates());
+        StdOut.printf("Tried %d candidates in %d ms on %d threads\n",
+                      gen.getNumTried(), gen.getElapsedMillis(), gen.pool.getParallelism());
+    }
+}
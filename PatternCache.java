@@ -0,0 +1,194 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  PatternCache remembers the mine counts of frontier patterns, so
+ *  a pattern seen before doesn't have to be enumerated again.
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A <i>PatternCache</i> object holds the enumerated mine counts of frontier
+ * components, for ProbabilitySolver. The same small shapes, like a 1-2-1 or
+ * 1-2-2-1 along an edge or a number in a corner, turn up again and again on
+ * every board, and counting the ways their mines can be placed only has to be
+ * done once.
+ *
+ * A pattern is described relative to its first number, so the same shape
+ * anywhere on any board is the same pattern: for each number, its row and
+ * column from the first, which of its neighbors are undecided, and how many
+ * mines they hold once the neighbors already known to be mines (the solver's
+ * flags) are taken off. Patterns are looked up by a Zobrist hash: each
+ * number's description is turned into a pseudo-random 64-bit key, and the
+ * pattern's hash is the exclusive-or of its numbers' keys. Keys are made by
+ * scrambling the description rather than by looking it up in a table, since
+ * the offsets aren't bounded. Since offsets are from the first number, a
+ * pattern's hash is worked out afresh each time its component is found,
+ * which costs a few multiplies per number. The description is kept with
+ * each entry and checked on a hit, so a hash collision can't return the
+ * wrong counts.
+ *
+ * The cache holds at most a fixed number of patterns. When it is full, the
+ * one used least recently is evicted. One cache is shared by every solver
+ * in the program unless a solver is given its own, so patterns carry over
+ * from game to game. All methods are synchronized, so solvers on different
+ * threads can share a cache. When metrics are on, the shared cache's
+ * counters can be watched through JMX; see Metrics.
+ */
+public class PatternCache implements PatternCacheMBean {
+
+    /**
+     * Most patterns held by a cache unless another capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    // The cache used by solvers that aren't given one.
+    private static final PatternCache shared = new PatternCache(DEFAULT_CAPACITY);
+
+    /**
+     * The mine counts of one pattern. Cells are numbered in row order, and
+     * counts[k] is the number of placements using minK + k mines, scaled so
+     * the largest is 1; cellCounts[v * counts.length + k] is how many of those
+     * put a mine in cell v.
+     */
+    static class Entry {
+        final long[] pattern;
+        final int minK;
+        final double[] counts;
+        final double[] cellCounts;
+
+        Entry(long[] pattern, int minK, double[] counts, double[] cellCounts) {
+            this.pattern = pattern;
+            this.minK = minK;
+            this.counts = counts;
+            this.cellCounts = cellCounts;
+        }
+    }
+
+    // Most patterns held.
+    private final int capacity;
+
+    // Patterns by hash, least recently used first.
+    private final LinkedHashMap<Long, Entry> entries;
+
+    // Lookups that found their pattern, lookups that didn't, and patterns
+    // thrown out to make room.
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Initialize an empty cache that holds at most the given number of
+     * patterns.
+     */
+    public PatternCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= PatternCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get the cache shared by every solver that isn't given its own.
+     */
+    public static PatternCache shared() {
+        return shared;
+    }
+
+    /**
+     * Get the Zobrist key of one number of a pattern.
+     * @param dr the number's row, less the row of the pattern's first number.
+     * @param dc the number's column, less the column of the first number.
+     * @param mask which of its neighbors are undecided, one bit per neighbor
+     * in the order of Board.getNeighborOffsets().
+     * @param need how many mines its undecided neighbors hold.
+     */
+    public static long key(int dr, int dc, int mask, int need) {
+        long z = describe(dr, dc, mask, need) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Pack the description of one number of a pattern into a long, as kept
+     * with each entry to be checked on a hit.
+     */
+    public static long describe(int dr, int dc, int mask, int need) {
+        return ((long)dr << 36) | ((long)(dc + (1 << 23)) << 12) | (mask << 4) | need;
+    }
+
+    /**
+     * Look up a pattern.
+     * @param hash the pattern's Zobrist hash.
+     * @param pattern its numbers' descriptions, in row order.
+     * @return its counts, or null if it isn't in the cache.
+     */
+    synchronized Entry get(long hash, long[] pattern) {
+        Entry e = entries.get(hash);
+        if (e != null && Arrays.equals(e.pattern, pattern)) {
+            hits++;
+            return e;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Add a pattern, evicting the least recently used one if the cache is
+     * full.
+     */
+    synchronized void put(long hash, Entry e) {
+        entries.put(hash, e);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double)hits / lookups;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of patterns in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getSize() {
+        return size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Describe the cache's counters in a line of text.
+     */
+    public synchronized String toString() {
+        return String.format("%-18s hits %10d  misses %10d  (%.1f%%)  evicted %10d  size %d/%d",
+                             "pattern-cache", hits, misses, 100 * getHitRate(), evictions,
+                             entries.size(), capacity);
+    }
+}
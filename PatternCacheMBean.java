@@ -0,0 +1,45 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  PatternCacheMBean is what JMX shows of a PatternCache.
+ *----------------------------------------------------------------*/
+
+/**
+ * The management interface of a PatternCache, as seen through JMX, e.g. in
+ * jconsole under "Minesweeper". See Metrics.
+ */
+public interface PatternCacheMBean {
+
+    /**
+     * Get the number of lookups that found their pattern.
+     */
+    long getHits();
+
+    /**
+     * Get the number of lookups that didn't find their pattern.
+     */
+    long getMisses();
+
+    /**
+     * Get the fraction of lookups that found their pattern, or 0 if there
+     * have been none.
+     */
+    double getHitRate();
+
+    /**
+     * Get the number of patterns evicted to make room for others.
+     */
+    long getEvictions();
+
+    /**
+     * Get the number of patterns in the cache.
+     */
+    int getSize();
+
+    /**
+     * Get the most patterns the cache holds.
+     */
+    int getCapacity();
+}
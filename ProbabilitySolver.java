@@ -0,0 +1,1165 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ProbabilitySolver works out the chance that each hidden cell
+ *  hides a mine, for when there is no cell that is certainly safe.
+ *----------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A <i>ProbabilitySolver</i> object works on top of a Solver. Once the solver
+ * has deduced all it can, every hidden cell it hasn't settled is a guess, and
+ * this class works out the probability that each one hides a mine, given the
+ * numbers showing and the number of mines left.
+ *
+ * The undecided cells next to the frontier split into components: groups
+ * linked to each other through the numbers they share. Components don't
+ * constrain each other except through the total number of mines, so each is
+ * enumerated on its own: every way of placing mines in its cells that agrees
+ * with its numbers is counted, by how many mines it uses. The components are
+ * enumerated in parallel on a ForkJoinPool.
+ *
+ * A game that answers hints keeps the solver up to date by calling update()
+ * after every move, and can give it a step budget with setStepBudget(). Then
+ * update() enumerates components on the caller's thread only until the
+ * budget is spent. Any component left over is given an estimate for now and
+ * enumerated in the background, and a later compute() picks up its counts
+ * once they are ready. A hint then only has to weigh the components
+ * together. Without a budget, every component is counted before update()
+ * returns, so the results depend only on the board.
+ *
+ * The components are then weighted together by how many ways the mines left
+ * over can go in the interior, the undecided cells away from the frontier:
+ * if the frontier takes K of the M mines left, there are C(I, M - K) ways to
+ * place the rest among I interior cells. When there are only a few
+ * components, that weighting is done exactly. On a big board with many
+ * components it is done the way it comes out in the limit: each mine in a
+ * component is weighted by the odds of a mine in the interior, which is
+ * chosen so the expected number of mines adds up to M.
+ *
+ * The solver keeps its components from one compute() to the next. It listens
+ * to the board, and takes the cells the Solver decides from its list, and
+ * only the components within a step of a cell that changed are found again.
+ * Each component found again is looked up in a PatternCache by the Zobrist
+ * hash of its numbers, so a shape seen before, here or on another board,
+ * isn't enumerated again. Which component each cell belongs to is kept in a
+ * small hash table rather than an array over the board, so the memory used
+ * follows the size of the frontier, not of the board.
+ *
+ * Components with more than MAX_CELLS cells, or that take more than MAX_STEPS
+ * steps to enumerate, are estimated instead: each cell is given the average,
+ * over its numbers, of the fraction of the number's undecided neighbors that
+ * are mines. Estimates aren't cached.
+ */
+public class ProbabilitySolver implements CellListener {
+
+    // Most cells in a component that is enumerated.
+    private static final int MAX_CELLS = 64;
+
+    // Most steps of the search spent on one component.
+    private static final long MAX_STEPS = 1L << 22;
+
+    /**
+     * A step budget for update() that keeps the enumeration it does on the
+     * caller's thread well under a millisecond, for solvers that answer hints
+     * while a user plays.
+     */
+    public static final long INTERACTIVE_STEPS = 1L << 12;
+
+    // Largest (number of components) x (spread of frontier mine counts)^2
+    // for which the mines left are weighted exactly. Past this the exact
+    // weighting takes milliseconds, and the interior is big enough that the
+    // limit is just as good.
+    private static final long EXACT_WORK = 1L << 16;
+
+    // The game being followed.
+    private final Solver solver;
+    private final Engine engine;
+    private final Board board;
+    private final long[] neighbors;
+
+    // Where components are enumerated.
+    private final ForkJoinPool pool;
+
+    // Where enumerated patterns are kept.
+    private final PatternCache cache;
+
+    // Most steps update() spends enumerating on the caller's thread.
+    private long stepBudget = Long.MAX_VALUE;
+
+    // The components as of the last update(). Each has a slot in slots,
+    // and owner holds one more than the slot of the component that each
+    // cell or number belongs to. Cells in no component aren't in owner.
+    private Component[] slots = new Component[16];
+    private int[] freeSlots = new int[16];
+    private int numFree = 0;
+    private int numSlots = 0;
+    private final CellMap owner = new CellMap();
+
+    // Cells that have changed since the last update(), with one bit per
+    // cell of the padded board so each is listed once, and how far through
+    // the solver's list of decided cells compute() has got.
+    private long[] dirty = new long[64];
+    private int numDirty = 0;
+    private final long[] isDirty;
+    private int numDecidedSeen = 0;
+    private boolean started = false;
+
+    // Each cell's position within its component, while it is being found.
+    private final CellMap localIndex = new CellMap();
+
+    // Results of the last compute().
+    private double interiorProbability = 0;
+    private long numInterior = 0;
+    private long safestFrontierCell = -1;
+    private double safestFrontierProbability = 1;
+    private int numComponents = 0;
+    private int numFound = 0;
+    private int numEnumerated = 0;
+    private int numRefining = 0;
+    private boolean exact = true;
+
+    // Interior density found by the last weighInLimit(), which the next one
+    // starts from, and scratch space for weighing one component.
+    private double density = 0;
+    private double rho = 0;
+    private final double[] weights = new double[MAX_CELLS + 1];
+    private double mean;
+    private double variance;
+
+    /**
+     * Initialize a probability solver on top of the given solver, which
+     * enumerates components on the common ForkJoinPool and keeps them in the
+     * shared PatternCache.
+     */
+    public ProbabilitySolver(Solver solver) {
+        this(solver, ForkJoinPool.commonPool(), PatternCache.shared());
+    }
+
+    /**
+     * Initialize a probability solver on top of the given solver, which
+     * enumerates components on the given pool and keeps them in the given
+     * cache. If compute() is called from a task already running in a pool,
+     * that pool is used instead.
+     */
+    public ProbabilitySolver(Solver solver, ForkJoinPool pool, PatternCache cache) {
+        this.solver = solver;
+        this.engine = solver.getEngine();
+        this.board = engine.getBoard();
+        this.neighbors = board.getNeighborOffsets();
+        this.pool = pool;
+        this.cache = cache;
+
+        long size = board.getPaddedSize();
+        int words = (int)((size + 63) >>> 6);
+        isDirty = new long[words];
+        board.addCellListener(this);
+    }
+
+    /**
+     * Stop following the game.
+     */
+    public void detach() {
+        board.removeCellListener(this);
+    }
+
+    /**
+     * Limit the steps each update() spends enumerating components on the
+     * caller's thread. Components that would take more are estimated for now
+     * and enumerated in the background on the pool.
+     * @param steps the most steps, or Long.MAX_VALUE for no limit.
+     */
+    public void setStepBudget(long steps) {
+        if (steps < 0)
+            throw new IllegalArgumentException("steps must not be negative");
+        this.stepBudget = steps;
+    }
+
+    // Helpers for reading and writing single bits of a bitset.
+    private static boolean get(long[] bits, long i) {
+        return (bits[(int)(i >>> 6)] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, long i) {
+        bits[(int)(i >>> 6)] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, long i) {
+        bits[(int)(i >>> 6)] &= ~(1L << i);
+    }
+
+    // Returns true if a cell is hidden and the solver hasn't decided it.
+    private boolean isUndecided(long i) {
+        return !board.isRevealed(i) && !solver.isKnownMine(i) && !solver.isKnownSafe(i);
+    }
+
+    /**
+     * Called by the board when a cell changes. The cell is remembered, so the
+     * next compute() finds the components around it again. Before the first
+     * compute(), which looks at the whole frontier anyway, nothing is kept.
+     */
+    public void cellChanged(long i) {
+        if (started)
+            markDirty(i);
+    }
+
+    private void markDirty(long i) {
+        if (get(isDirty, i))
+            return;
+        set(isDirty, i);
+        if (numDirty == dirty.length)
+            dirty = Arrays.copyOf(dirty, 2 * numDirty);
+        dirty[numDirty++] = i;
+    }
+
+    /**
+     * A <i>Component</i> is a group of undecided cells linked through shared
+     * numbers, with the number of ways its mines can be placed.
+     */
+    private static class Component {
+        final int slot;
+        final long[] numbers;   // every number taken in, as found
+        final long[] cells;     // the undecided cells, in row order
+        final long hash;        // Zobrist hash of the pattern
+        final long[] pattern;   // descriptions of the numbers, in row order
+
+        // For enumerating: mines left for each number, each number's cells
+        // by position in cells, and the order to try the cells in, which is
+        // the order they were found so that numbers fill up early.
+        final int[] need;
+        final int[][] cellsOf;
+        final int[] order;
+
+        // The counts, once looked up or enumerated.
+        PatternCache.Entry entry;
+
+        // The background enumeration that will replace an estimate with
+        // exact counts, or null if there is none.
+        Refinement refining;
+
+        // The weight of the component holding minK + k mines, from the last
+        // exact weighing, or null if it was weighed in the limit.
+        double[] g;
+
+        // For an estimate, whose probabilities don't depend on the weights,
+        // the position of its safest cell; otherwise -1.
+        int fixedSafest = -1;
+
+        Component(int slot, long[] numbers, long[] cells, long hash, long[] pattern,
+                  int[] need, int[][] cellsOf, int[] order) {
+            this.slot = slot;
+            this.numbers = numbers;
+            this.cells = cells;
+            this.hash = hash;
+            this.pattern = pattern;
+            this.need = need;
+            this.cellsOf = cellsOf;
+            this.order = order;
+        }
+
+        // Count every placement of mines that agrees with the numbers, or
+        // estimate if there would be too many. Returns true if the counts
+        // are exact and worth caching.
+        boolean enumerate() {
+            Search s = search(MAX_STEPS);
+            if (s != null) {
+                entry = s.result();
+                return true;
+            }
+            useEstimate();
+            return false;
+        }
+
+        // Run the search in at most the given number of steps. Returns the
+        // finished search, or null if the component is too big or the steps
+        // ran out. Only reads arrays that never change once the component is
+        // built, so it may run on any thread.
+        Search search(long limit) {
+            if (cells.length > MAX_CELLS)
+                return null;
+            Search s = new Search(this, limit);
+            return s.search(0, 0) ? s : null;
+        }
+
+        // Use an estimate of the counts, whose safest cell is fixed.
+        void useEstimate() {
+            entry = estimate();
+            fixedSafest = 0;
+            for (int v = 1; v < cells.length; v++)
+                if (entry.cellCounts[v] < entry.cellCounts[fixedSafest])
+                    fixedSafest = v;
+        }
+
+        // Use counts that a refinement has found.
+        void useCounts(PatternCache.Entry e) {
+            entry = e;
+            fixedSafest = -1;
+        }
+
+        // Give each cell the average of its numbers' mine densities, and
+        // treat the component as always holding the total of those.
+        private PatternCache.Entry estimate() {
+            int n = cells.length;
+            double[] p = new double[n];
+            int[] numNumbers = new int[n];
+            for (int c = 0; c < need.length; c++)
+                for (int v : cellsOf[c]) {
+                    p[v] += (double)need[c] / cellsOf[c].length;
+                    numNumbers[v]++;
+                }
+            double sum = 0;
+            for (int v = 0; v < n; v++) {
+                p[v] /= numNumbers[v];
+                sum += p[v];
+            }
+            return new PatternCache.Entry(pattern, (int)Math.round(sum), new double[] { 1 }, p);
+        }
+    }
+
+    /**
+     * A <i>Search</i> tries every placement of mines in a component that
+     * agrees with its numbers, and counts them.
+     */
+    private static class Search {
+        final Component c;
+        final int n;
+        final int[][] numbersOf;  // each cell's numbers
+        final int[] placed;       // mines placed around each number so far
+        final int[] open;         // cells around each number not yet tried
+        final boolean[] mine;
+        final double[] counts;
+        final double[] cellCounts;
+        final long limit;
+        long steps = 0;
+
+        Search(Component c, long limit) {
+            this.c = c;
+            this.limit = limit;
+            this.n = c.cells.length;
+            int[] k = new int[n];
+            for (int[] vs : c.cellsOf)
+                for (int v : vs)
+                    k[v]++;
+            numbersOf = new int[n][];
+            for (int v = 0; v < n; v++)
+                numbersOf[v] = new int[k[v]];
+            Arrays.fill(k, 0);
+            for (int b = 0; b < c.cellsOf.length; b++)
+                for (int v : c.cellsOf[b])
+                    numbersOf[v][k[v]++] = b;
+
+            placed = new int[c.need.length];
+            open = new int[c.need.length];
+            for (int b = 0; b < c.need.length; b++)
+                open[b] = c.cellsOf[b].length;
+            mine = new boolean[n];
+            counts = new double[n + 1];
+            cellCounts = new double[n * (n + 1)];
+        }
+
+        // Try both values for the t^th cell in the search order and every
+        // cell after it, with k mines placed so far. Returns false if the
+        // search ran out of steps.
+        boolean search(int t, int k) {
+            if (++steps > limit)
+                return false;
+            if (t == n) {
+                counts[k]++;
+                for (int u = 0; u < n; u++)
+                    if (mine[u])
+                        cellCounts[u * (n + 1) + k]++;
+                return true;
+            }
+            int v = c.order[t];
+            for (int m = 0; m <= 1; m++) {
+                if (!fits(v, m))
+                    continue;
+                mine[v] = m == 1;
+                for (int b : numbersOf[v]) {
+                    placed[b] += m;
+                    open[b]--;
+                }
+                boolean ok = search(t + 1, k + m);
+                for (int b : numbersOf[v]) {
+                    placed[b] -= m;
+                    open[b]++;
+                }
+                mine[v] = false;
+                if (!ok)
+                    return false;
+            }
+            return true;
+        }
+
+        // Returns true if giving cell v the value m leaves every one of its
+        // numbers still possible to satisfy.
+        private boolean fits(int v, int m) {
+            for (int b : numbersOf[v]) {
+                int p = placed[b] + m;
+                if (p > c.need[b] || p + open[b] - 1 < c.need[b])
+                    return false;
+            }
+            return true;
+        }
+
+        // The counts for just the range of mine counts that some placement
+        // uses, scaled so the largest count is 1.
+        PatternCache.Entry result() {
+            int lo = 0, hi = n;
+            while (lo < hi && counts[lo] == 0)
+                lo++;
+            while (hi > lo && counts[hi] == 0)
+                hi--;
+            double max = 0;
+            for (double x : counts)
+                max = Math.max(max, x);
+            if (max == 0)
+                max = 1;
+            int len = hi - lo + 1;
+            double[] kept = new double[len];
+            double[] keptCells = new double[n * len];
+            for (int k = 0; k < len; k++)
+                kept[k] = counts[lo + k] / max;
+            for (int v = 0; v < n; v++)
+                for (int k = 0; k < len; k++)
+                    keptCells[v * len + k] = cellCounts[v * (n + 1) + lo + k] / max;
+            return new PatternCache.Entry(c.pattern, lo, kept, keptCells);
+        }
+    }
+
+    // Enumerates one component, as a task on the pool.
+    private static class Enumeration extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Component component;
+        boolean cacheable;
+
+        Enumeration(Component component) {
+            this.component = component;
+        }
+
+        protected void compute() {
+            cacheable = component.enumerate();
+        }
+    }
+
+    // Enumerates a component in the background, after update() ran out of
+    // steps for it, and puts the counts in the cache. The component keeps
+    // its estimate until compute() sees that this is done.
+    private static class Refinement extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Component component;
+        final PatternCache cache;
+        PatternCache.Entry counts;
+
+        Refinement(Component component, PatternCache cache) {
+            this.component = component;
+            this.cache = cache;
+        }
+
+        protected void compute() {
+            Search s = component.search(MAX_STEPS);
+            if (s != null) {
+                counts = s.result();
+                cache.put(component.hash, counts);
+            }
+        }
+    }
+
+    /**
+     * Bring the solver and the components up to date with every move made
+     * since the last update, but don't weigh them together. Call this after
+     * each move to keep the work a hint has to do small.
+     */
+    public void update() {
+        solver.update();
+        if (started)
+            for (int k = numDecidedSeen; k < solver.getNumDecided(); k++)
+                markDirty(solver.getDecided(k));
+        numDecidedSeen = solver.getNumDecided();
+
+        // Throw out the components around each changed cell, and collect the
+        // numbers to find components from again: theirs, and any on the
+        // frontier around the changed cells.
+        long[] seeds = new long[64];
+        int numSeeds = 0;
+        if (!started) {
+            for (long a = solver.nextFrontier(0); a >= 0; a = solver.nextFrontier(a + 1)) {
+                if (numSeeds == seeds.length)
+                    seeds = Arrays.copyOf(seeds, 2 * numSeeds);
+                seeds[numSeeds++] = a;
+            }
+            started = true;
+        }
+        for (int d = 0; d < numDirty; d++) {
+            long i = dirty[d];
+            clear(isDirty, i);
+            for (int k = -1; k < neighbors.length; k++) {
+                long j = k < 0 ? i : i + neighbors[k];
+                if (owner.get(j) != 0) {
+                    Component c = slots[owner.get(j) - 1];
+                    if (numSeeds + c.numbers.length > seeds.length)
+                        seeds = Arrays.copyOf(seeds, 2 * (numSeeds + c.numbers.length));
+                    System.arraycopy(c.numbers, 0, seeds, numSeeds, c.numbers.length);
+                    numSeeds += c.numbers.length;
+                    remove(c);
+                }
+                if (solver.isFrontier(j)) {
+                    if (numSeeds == seeds.length)
+                        seeds = Arrays.copyOf(seeds, 2 * numSeeds);
+                    seeds[numSeeds++] = j;
+                }
+            }
+        }
+        numDirty = 0;
+
+        // Find the components again, and look each up in the cache.
+        final List<Enumeration> tasks = new ArrayList<Enumeration>();
+        Map<Long, Component> pending = new HashMap<Long, Component>();
+        List<Component> copies = new ArrayList<Component>();
+        numFound = 0;
+        for (int s = 0; s < numSeeds; s++) {
+            long a = seeds[s];
+            if (owner.get(a) != 0 || !solver.isFrontier(a))
+                continue;
+            Component c = findComponent(a);
+            if (c == null)
+                continue;
+            numFound++;
+            c.entry = cache.get(c.hash, c.pattern);
+            if (c.entry != null)
+                continue;
+            Component same = pending.get(c.hash);
+            if (same != null && Arrays.equals(same.pattern, c.pattern)) {
+                copies.add(c);
+            } else {
+                pending.put(c.hash, c);
+                tasks.add(new Enumeration(c));
+            }
+        }
+        numEnumerated = tasks.size();
+
+        if (stepBudget != Long.MAX_VALUE) {
+            enumerateWithin(tasks);
+            for (Component c : copies) {
+                Component same = pending.get(c.hash);
+                c.entry = same.entry;
+                c.fixedSafest = same.fixedSafest;
+                c.refining = same.refining;
+            }
+            return;
+        }
+
+        if (tasks.size() == 1) {
+            tasks.get(0).invoke(); // not worth handing to another thread
+        } else if (!tasks.isEmpty()) {
+            if (ForkJoinTask.inForkJoinPool()) {
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                pool.invoke(new RecursiveAction() {
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            }
+        }
+        for (Enumeration e : tasks)
+            if (e.cacheable)
+                cache.put(e.component.hash, e.component.entry);
+        for (Component c : copies)
+            c.entry = pending.get(c.hash).entry;
+    }
+
+    // Enumerate components on this thread until the step budget is spent.
+    // The rest are estimated, and enumerated in the background unless they
+    // are too big to enumerate at all.
+    private void enumerateWithin(List<Enumeration> tasks) {
+        long budget = stepBudget;
+        for (Enumeration e : tasks) {
+            Component c = e.component;
+            Search s = budget > 0 ? c.search(budget) : null;
+            if (s != null) {
+                budget -= s.steps;
+                c.useCounts(s.result());
+                cache.put(c.hash, c.entry);
+                continue;
+            }
+            if (c.cells.length <= MAX_CELLS) {
+                budget = 0;
+                c.refining = new Refinement(c, cache);
+                pool.execute(c.refining);
+            }
+            c.useEstimate();
+        }
+    }
+
+    /**
+     * Bring everything up to date, then work out the probability of a mine
+     * in every undecided cell. Components whose background enumeration has
+     * finished switch from their estimates to the exact counts.
+     */
+    public void compute() {
+        update();
+
+        // Weigh every component together, changed or not.
+        List<Component> components = new ArrayList<Component>();
+        numRefining = 0;
+        for (int s = 0; s < numSlots; s++) {
+            Component c = slots[s];
+            if (c == null)
+                continue;
+            if (c.refining != null && c.refining.isDone()) {
+                if (c.refining.counts != null)
+                    c.useCounts(c.refining.counts);
+                c.refining = null;
+            }
+            if (c.refining != null)
+                numRefining++;
+            components.add(c);
+        }
+        numComponents = components.size();
+
+        long numFrontier = 0;
+        long spread = 0;
+        for (Component c : components) {
+            numFrontier += c.cells.length;
+            spread += c.entry.counts.length - 1;
+        }
+        long minesLeft = board.getNumMines() - solver.getNumKnownMines();
+        long undecided = board.getNumCells() - engine.getNumRevealed()
+            - solver.getNumKnownMines() - solver.getNumSafeHidden();
+        numInterior = undecided - numFrontier;
+
+        exact = numInterior == 0
+            || (double)components.size() * (spread + 1) * (spread + 1) <= EXACT_WORK;
+        if (exact)
+            weighExactly(components, minesLeft, spread);
+        else
+            weighInLimit(components, minesLeft);
+    }
+
+    // Forget a component, freeing its cells, numbers and slot.
+    private void remove(Component c) {
+        for (long a : c.numbers)
+            owner.remove(a);
+        for (long i : c.cells)
+            owner.remove(i);
+        slots[c.slot] = null;
+        if (numFree == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, 2 * numFree);
+        freeSlots[numFree++] = c.slot;
+    }
+
+    // Collect the component holding the given frontier number: its numbers
+    // and their undecided neighbors, and theirs, and so on, and give it a
+    // slot. Returns null if the number has no undecided neighbors.
+    private Component findComponent(long start) {
+        int slot;
+        if (numFree > 0) {
+            slot = freeSlots[--numFree];
+        } else {
+            if (numSlots == slots.length)
+                slots = Arrays.copyOf(slots, 2 * numSlots);
+            slot = numSlots++;
+        }
+        int mark = slot + 1;
+
+        long[] cells = new long[16];
+        int n = 0;
+        List<int[]> cellsOf = new ArrayList<int[]>();
+        long[] found = new long[16];  // index, mask and need of each number
+        long[] queue = new long[16];
+        int head = 0, tail = 0;
+
+        owner.put(start, mark);
+        queue[tail++] = start;
+        while (head < tail) {
+            long a = queue[head++];
+            int[] vs = new int[8];
+            int nv = 0;
+            int mask = 0;
+            int left = board.getNeighborMineCount(a);
+            for (int k = 0; k < neighbors.length; k++) {
+                long i = a + neighbors[k];
+                if (solver.isKnownMine(i))
+                    left--;
+                if (!isUndecided(i))
+                    continue;
+                mask |= 1 << k;
+                if (owner.get(i) != mark) {
+                    owner.put(i, mark);
+                    if (n == cells.length)
+                        cells = Arrays.copyOf(cells, 2 * n);
+                    localIndex.put(i, n);
+                    cells[n++] = i;
+                    for (long offset : neighbors) {
+                        long b = i + offset;
+                        if (solver.isFrontier(b) && owner.get(b) == 0) {
+                            owner.put(b, mark);
+                            if (tail == queue.length)
+                                queue = Arrays.copyOf(queue, 2 * tail);
+                            queue[tail++] = b;
+                        }
+                    }
+                }
+                vs[nv++] = localIndex.get(i);
+            }
+            if (nv == 0)
+                continue;
+            if (cellsOf.size() == found.length)
+                found = Arrays.copyOf(found, 2 * found.length);
+            found[cellsOf.size()] = (a << 12) | (mask << 4) | left;
+            cellsOf.add(Arrays.copyOf(vs, nv));
+        }
+        long[] numbers = Arrays.copyOf(queue, tail);
+        for (int v = 0; v < n; v++)
+            localIndex.remove(cells[v]);
+        if (n == 0) {
+            for (long a : numbers)
+                owner.remove(a);
+            freeSlots[numFree++] = slot;
+            return null;
+        }
+
+        // Number the cells in row order, which is the same for the same
+        // pattern anywhere, and keep the order they were found in for the
+        // search.
+        long[] sorted = Arrays.copyOf(cells, n);
+        Arrays.sort(sorted);
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++)
+            order[v] = Arrays.binarySearch(sorted, cells[v]);
+        int nc = cellsOf.size();
+        int[][] cellsOfSorted = new int[nc][];
+        int[] need = new int[nc];
+        for (int c = 0; c < nc; c++) {
+            int[] vs = cellsOf.get(c);
+            for (int k = 0; k < vs.length; k++)
+                vs[k] = order[vs[k]];
+            cellsOfSorted[c] = vs;
+            need[c] = (int)(found[c] & 15);
+        }
+
+        // Describe the pattern relative to its first number in row order,
+        // and hash it.
+        long[] byRow = Arrays.copyOf(found, nc);
+        Arrays.sort(byRow);
+        long first = byRow[0] >>> 12;
+        int row0 = board.rowOf(first), col0 = board.colOf(first);
+        long[] pattern = new long[nc];
+        long hash = 0;
+        for (int c = 0; c < nc; c++) {
+            long a = byRow[c] >>> 12;
+            int dr = board.rowOf(a) - row0;
+            int dc = board.colOf(a) - col0;
+            int mask = (int)((byRow[c] >>> 4) & 0xFF);
+            int left = (int)(byRow[c] & 15);
+            pattern[c] = PatternCache.describe(dr, dc, mask, left);
+            hash ^= PatternCache.key(dr, dc, mask, left);
+        }
+
+        Component c = new Component(slot, numbers, sorted, hash, pattern,
+                                    need, cellsOfSorted, order);
+        slots[slot] = c;
+        return c;
+    }
+
+    // Weigh the components together exactly. w[K] is proportional to the
+    // number of ways to put the mines the frontier doesn't use into the
+    // interior, when the frontier uses base + K mines.
+    private void weighExactly(List<Component> components, long minesLeft, long spread) {
+        int nc = components.size();
+        long base = 0;
+        for (Component c : components)
+            base += c.entry.minK;
+
+        double[] w = new double[(int)spread + 1];
+        double[] logw = new double[w.length];
+        double max = Double.NEGATIVE_INFINITY;
+        double log = 0;
+        boolean started = false;
+        for (int k = 0; k < w.length; k++) {
+            long rest = minesLeft - base - k;
+            if (rest < 0 || rest > numInterior) {
+                logw[k] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            if (started) {
+                // C(I, rest) / C(I, rest + 1) = (rest + 1) / (I - rest)
+                log += Math.log(rest + 1) - Math.log(numInterior - rest);
+            }
+            started = true;
+            logw[k] = log;
+            max = Math.max(max, log);
+        }
+        for (int k = 0; k < w.length; k++)
+            w[k] = logw[k] == Double.NEGATIVE_INFINITY ? 0 : Math.exp(logw[k] - max);
+
+        // prefix[c] is the distribution of mines over components before c,
+        // suffix[c] over components from c on.
+        double[][] prefix = new double[nc + 1][];
+        double[][] suffix = new double[nc + 1][];
+        prefix[0] = new double[] { 1 };
+        suffix[nc] = new double[] { 1 };
+        for (int c = 0; c < nc; c++)
+            prefix[c + 1] = convolve(prefix[c], components.get(c).entry.counts);
+        for (int c = nc - 1; c >= 0; c--)
+            suffix[c] = convolve(components.get(c).entry.counts, suffix[c + 1]);
+
+        double total = 0, interiorMines = 0;
+        double[] all = prefix[nc];
+        for (int k = 0; k < all.length; k++) {
+            total += all[k] * w[k];
+            interiorMines += all[k] * w[k] * (minesLeft - base - k);
+        }
+        interiorProbability = total > 0 && numInterior > 0 ? interiorMines / total / numInterior : 0;
+
+        startResults();
+        for (int c = 0; c < nc; c++) {
+            Component comp = components.get(c);
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            int len = comp.entry.counts.length;
+            double[] g = new double[len];
+            for (int k = 0; k < len; k++)
+                for (int t = 0; t < others.length; t++)
+                    g[k] += others[t] * w[k + t];
+            comp.g = g;
+            consider(comp, g);
+        }
+    }
+
+    // Weigh the components together as on an endless board: each mine in a
+    // component counts rho = d / (1 - d) times as much as a safe cell, where
+    // d is the density of mines in the interior, chosen so that the mines
+    // expected in the frontier and the interior add up to the mines left.
+    // The density moves very little from one move to the next, so it is
+    // found by Newton's method starting from the last one, falling back on
+    // bisection if a step would leave the range it must be in.
+    private void weighInLimit(List<Component> components, long minesLeft) {
+        double lo = 0, hi = 1;
+        double d = density > 0 && density < 1 ? density : 0.5;
+        for (int step = 0; step < 100; step++) {
+            double rho = d / (1 - d);
+            double expected = d * numInterior;
+            double slope = numInterior;
+            for (Component c : components) {
+                moments(c, rho);
+                expected += mean;
+                slope += variance / (d * (1 - d));
+            }
+            double f = expected - minesLeft;
+            if (Math.abs(f) < 1e-6)
+                break; // within a millionth of a mine
+            if (f > 0)
+                hi = d;
+            else
+                lo = d;
+            double next = d - f / slope;
+            if (!(next > lo && next < hi))
+                next = (lo + hi) / 2;
+            if (Math.abs(next - d) < 1e-12)
+                break;
+            d = next;
+        }
+        density = d;
+        interiorProbability = d;
+
+        startResults();
+        rho = d / (1 - d);
+        for (Component c : components) {
+            c.g = null;
+            powers(rho, c.entry.counts.length, weights);
+            consider(c, weights);
+        }
+    }
+
+    // Set mean and variance to those of the number of mines a component
+    // holds, if each placement is weighted by rho to the power of its number
+    // of mines.
+    private void moments(Component c, double rho) {
+        double[] counts = c.entry.counts;
+        powers(rho, counts.length, weights);
+        double sum = 0, m1 = 0, m2 = 0;
+        for (int k = 0; k < counts.length; k++) {
+            double w = counts[k] * weights[k];
+            sum += w;
+            m1 += w * k;
+            m2 += w * k * k;
+        }
+        if (sum > 0) {
+            m1 /= sum;
+            m2 /= sum;
+        }
+        mean = c.entry.minK + m1;
+        variance = Math.max(0, m2 - m1 * m1);
+    }
+
+    // Fill g with rho to the powers 0 up to n - 1, scaled so the largest is
+    // 1, so that large powers don't overflow.
+    private static void powers(double rho, int n, double[] g) {
+        if (rho <= 1) {
+            double p = 1;
+            for (int k = 0; k < n; k++, p *= rho)
+                g[k] = p;
+        } else {
+            double p = 1;
+            for (int k = n - 1; k >= 0; k--, p /= rho)
+                g[k] = p;
+        }
+    }
+
+    private void startResults() {
+        safestFrontierCell = -1;
+        safestFrontierProbability = 1;
+    }
+
+    // Look for a safer cell in a component than any found so far, given
+    // g[k], the weight of the component holding minK + k mines. Probabilities
+    // aren't stored; getProbability() works out one when it is asked for.
+    private void consider(Component c, double[] g) {
+        if (c.fixedSafest >= 0) {
+            double p = c.entry.cellCounts[c.fixedSafest];
+            if (p < safestFrontierProbability) {
+                safestFrontierProbability = p;
+                safestFrontierCell = c.cells[c.fixedSafest];
+            }
+            return;
+        }
+        for (int v = 0; v < c.cells.length; v++) {
+            double p = probabilityOf(c, v, g);
+            if (p < safestFrontierProbability) {
+                safestFrontierProbability = p;
+                safestFrontierCell = c.cells[v];
+            }
+        }
+    }
+
+    // The probability of a mine in a component's v^th cell, given g[k], the
+    // weight of the component holding minK + k mines.
+    private static double probabilityOf(Component c, int v, double[] g) {
+        int len = c.entry.counts.length;
+        double total = 0, p = 0;
+        for (int k = 0; k < len; k++) {
+            total += c.entry.counts[k] * g[k];
+            p += c.entry.cellCounts[v * len + k] * g[k];
+        }
+        return total > 0 ? p / total : 0;
+    }
+
+    // The distribution of the sum of two independent counts, scaled so the
+    // largest is 1.
+    private static double[] convolve(double[] a, double[] b) {
+        double[] c = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++)
+            if (a[i] != 0)
+                for (int j = 0; j < b.length; j++)
+                    c[i + j] += a[i] * b[j];
+        double max = 0;
+        for (double x : c)
+            max = Math.max(max, x);
+        if (max > 0)
+            for (int k = 0; k < c.length; k++)
+                c[k] /= max;
+        return c;
+    }
+
+    /**
+     * Get the probability, as of the last compute(), that the cell at the
+     * given index hides a mine.
+     */
+    public double getProbability(long i) {
+        if (board.isRevealed(i) || solver.isKnownSafe(i))
+            return 0;
+        if (solver.isKnownMine(i))
+            return 1;
+        int slot = owner.get(i);
+        if (slot == 0)
+            return interiorProbability;
+        Component c = slots[slot - 1];
+        double[] g = c.g;
+        if (g == null) {
+            g = weights;
+            powers(rho, c.entry.counts.length, g);
+        }
+        return probabilityOf(c, Arrays.binarySearch(c.cells, i), g);
+    }
+
+    /**
+     * Get the probability, as of the last compute(), of a mine in any one of
+     * the undecided cells away from the frontier.
+     */
+    public double getInteriorProbability() {
+        return interiorProbability;
+    }
+
+    /**
+     * Get a hidden cell least likely to hide a mine: one the solver knows is
+     * safe if there is one, or else the safest cell as of the last compute().
+     * When an interior cell is safest, one is picked at random.
+     * @return the cell's index, or -1 if every hidden cell is a known mine.
+     */
+    public long getSafestCell(Random random) {
+        long i = solver.nextSafe();
+        if (i >= 0)
+            return i;
+        if (numInterior > 0 && (safestFrontierCell < 0
+                                || interiorProbability < safestFrontierProbability)) {
+            int numRows = board.getNumRows();
+            int numCols = board.getNumCols();
+            for (int t = 0; t < 64; t++) {
+                i = board.index(random.nextInt(numRows), random.nextInt(numCols));
+                if (isUndecided(i) && owner.get(i) == 0)
+                    return i;
+            }
+            for (int r = 0; r < numRows; r++) {
+                i = board.index(r, 0);
+                for (int c = 0; c < numCols; c++, i++)
+                    if (isUndecided(i) && owner.get(i) == 0)
+                        return i;
+            }
+        }
+        return safestFrontierCell;
+    }
+
+    /**
+     * Get the number of components found by the last compute().
+     */
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * Get the number of components the last update() had to enumerate,
+     * because they weren't in the pattern cache.
+     */
+    public int getNumEnumerated() {
+        return numEnumerated;
+    }
+
+    /**
+     * Get the number of components the last compute() weighed with an
+     * estimate while their counts were still being worked out in the
+     * background.
+     */
+    public int getNumRefining() {
+        return numRefining;
+    }
+
+    /**
+     * Get the number of components the last update() found again, because
+     * something near them had changed.
+     */
+    public int getNumFound() {
+        return numFound;
+    }
+
+    /**
+     * Get the pattern cache this solver uses.
+     */
+    public PatternCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns true if the last compute() weighed the components together
+     * exactly, rather than as on an endless board.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * A <i>CellMap</i> maps cell indexes to ints. It only ever holds cells on
+     * or next to the frontier, so it takes memory in proportion to the
+     * frontier rather than to the board, and works for boards with more
+     * cells than an array can hold. It is an open-addressed table with
+     * linear probing; a cell that isn't in the map reads as 0.
+     */
+    private static class CellMap {
+        private long[] keys = emptyKeys(64);
+        private int[] values = new int[64];
+        private int size = 0;
+
+        private static long[] emptyKeys(int n) {
+            long[] k = new long[n];
+            Arrays.fill(k, -1);
+            return k;
+        }
+
+        // Where a key would go in a table with the given mask, if nothing
+        // were in the way.
+        private static int home(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int)(h ^ (h >>> 32)) & mask;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int s = home(key, mask); keys[s] >= 0; s = (s + 1) & mask)
+                if (keys[s] == key)
+                    return values[s];
+            return 0;
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length)
+                grow();
+            int mask = keys.length - 1;
+            int s = home(key, mask);
+            while (keys[s] >= 0 && keys[s] != key)
+                s = (s + 1) & mask;
+            if (keys[s] < 0) {
+                keys[s] = key;
+                size++;
+            }
+            values[s] = value;
+        }
+
+        // Remove a key, then move back any keys after it in the same run
+        // that would no longer be found past the gap.
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int s = home(key, mask);
+            while (keys[s] != key) {
+                if (keys[s] < 0)
+                    return;
+                s = (s + 1) & mask;
+            }
+            keys[s] = -1;
+            size--;
+            int hole = s;
+            for (int j = (s + 1) & mask; keys[j] >= 0; j = (j + 1) & mask) {
+                int h = home(keys[j], mask);
+                if (((j - h) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    keys[j] = -1;
+                    hole = j;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = emptyKeys(2 * oldKeys.length);
+            values = new int[keys.length];
+            size = 0;
+            for (int s = 0; s < oldKeys.length; s++)
+                if (oldKeys[s] >= 0)
+                    put(oldKeys[s], oldValues[s]);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  RandomStrategy plays minesweeper by clicking at random.
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * A <i>RandomStrategy</i> reveals hidden cells picked at random until the game
+ * is over. It knows nothing about numbers, so it wins only by luck; it is a
+ * baseline to compare smarter strategies against.
+ */
+public class RandomStrategy implements Strategy {
+
+    /**
+     * Reveal random hidden cells until the game is won or lost.
+     */
+    public void play(Engine engine, Random random) {
+        Board board = engine.getBoard();
+        int numRows = board.getNumRows();
+        int numCols = board.getNumCols();
+        while (!engine.isGameOver()) {
+            int row = random.nextInt(numRows);
+            int col = random.nextInt(numCols);
+            if (!board.isRevealed(row, col))
+                engine.reveal(row, col);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  RepaintScheduler decides how often a window needs to be drawn,
+ *  and keeps track of how long drawing it takes.
+ *----------------------------------------------------------------*/
+
+/**
+ * A <i>RepaintScheduler</i> object follows the frames drawn for one window.
+ *
+ * The GUI library already draws a window again right after each mouse click
+ * or key press, so input shows up at once whatever the animation rate. The
+ * only thing on a game window that changes by itself is the Timer, and it
+ * only shows whole seconds, so windows are animated at FRAME_RATE, once a
+ * second, rather than many times a second. Between clicks, a game window is
+ * drawn once a second and is otherwise idle, which keeps many open windows
+ * from busying the machine.
+ *
+ * The window tells the scheduler when each frame starts and ends. The
+ * scheduler counts the frames and keeps the mean and longest time spent
+ * drawing one.
+ */
+public class RepaintScheduler {
+
+    /**
+     * Frames per second to animate windows at: often enough to show each
+     * second tick by on the Timer, and no more.
+     */
+    public static final double FRAME_RATE = 1.0;
+
+    // Value of System.nanoTime() when the current frame began, or -1 if no
+    // frame is being drawn.
+    private long frameStart = -1;
+
+    // Number of frames drawn.
+    private long numFrames;
+
+    // Total and longest time spent drawing a frame, in nanoseconds.
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Note that a frame has begun.
+     */
+    public void beginFrame() {
+        numFrames++;
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * Note that the frame begun by beginFrame() is finished. Does nothing if
+     * no frame was begun.
+     */
+    public void endFrame() {
+        if (frameStart < 0)
+            return;
+        long nanos = System.nanoTime() - frameStart;
+        frameStart = -1;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        if (Metrics.ENABLED)
+            Metrics.FRAME.record(nanos);
+    }
+
+    /**
+     * Get the number of frames drawn.
+     */
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    /**
+     * Get the mean time spent drawing a frame, in nanoseconds, or 0 if no
+     * frames have been drawn.
+     */
+    public double getMeanFrameNanos() {
+        return numFrames == 0 ? 0 : (double)totalNanos / numFrames;
+    }
+
+    /**
+     * Get the longest time spent drawing a frame, in nanoseconds.
+     */
+    public long getMaxFrameNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Describe the frames drawn so far in a line of text.
+     */
+    public String toString() {
+        return String.format("%d frames, %.2f ms mean, %.2f ms max",
+                             numFrames, getMeanFrameNanos() / 1e6, maxNanos / 1e6);
+    }
+}
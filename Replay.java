@@ -0,0 +1,137 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Replay plays a recorded game again, with no window, and checks
+ *  that every move does exactly what it did the first time.
+ *
+ *  You can replay the last game played using:
+ *    java Replay            # replays replay.dat
+ *    java Replay game.dat 100  # replays game.dat 100 times, for timing
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * A <i>Replay</i> object plays the moves of a MoveLog on a fresh Engine. The
+ * board is rebuilt from the log's seed, size and number of mines, just as
+ * Game.deployMines or Game.deployNoGuess did, so the moves land on the same
+ * mines they did the first time. After each move, what it did (the cells it
+ * revealed and the game's status) is checked against what the log says it
+ * did.
+ *
+ * Replaying only decodes a few bytes per move and calls the Engine, so it
+ * runs as fast as the moves themselves: millions of moves a second, apart
+ * from reveals that open up large regions.
+ */
+public class Replay {
+
+    // The moves to play.
+    private final MoveLog log;
+
+    // The game being replayed, once run() has been called.
+    private Engine engine;
+
+    // Time spent playing the moves, in nanoseconds, not counting building
+    // the board.
+    private long elapsedNanos;
+
+    /**
+     * Initialize a replay of the given log.
+     */
+    public Replay(MoveLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Build the board and play every move in the log.
+     * @return the number of the first move, counting from zero, that did
+     * something different from what the log recorded, or -1 if every move
+     * matched.
+     */
+    public int run() {
+        if (log.getCandidate() >= 0) {
+            Board board = new Board(log.getNumRows(), log.getNumCols());
+            new NoGuessGenerator(log.getNumRows(), log.getNumCols(), log.getNumMines())
+                .deploy(board, log.getSeed(), log.getCandidate());
+            engine = new Engine(board);
+        } else {
+            StdRandom.setSeed(log.getSeed());
+            engine = new Engine(log.getNumRows(), log.getNumCols(), log.getNumMines());
+        }
+
+        MoveLog.Reader m = log.reader();
+        int k = 0;
+        long start = System.nanoTime();
+        try {
+            while (m.next()) {
+                MoveResult r;
+                if (m.kind == MoveLog.REVEAL)
+                    r = engine.reveal(m.row, m.col);
+                else if (m.kind == MoveLog.FLAG)
+                    r = engine.flag(m.row, m.col);
+                else
+                    r = engine.chord(m.row, m.col);
+                if (r.getCellsRevealed() != m.cellsRevealed || r.getStatus() != m.status)
+                    return k;
+                k++;
+            }
+            return -1;
+        } finally {
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Get the game as it stands after run().
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Get the time run() spent playing moves, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * A main() function, which replays a saved log, checks it, and reports
+     * how fast the moves were played.
+     */
+    public static void main(String args[]) {
+        String file = args.length > 0 ? args[0] : MoveLog.DEFAULT_FILE;
+        int times = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        MoveLog log;
+        try {
+            log = MoveLog.load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StdOut.printf("%s: %d x %d board, %d mines, seed %d, %d moves in %d bytes\n",
+                      file, log.getNumRows(), log.getNumCols(), log.getNumMines(),
+                      log.getSeed(), log.getNumMoves(), log.getNumBytes());
+
+        long nanos = 0;
+        for (int t = 0; t < times; t++) {
+            Replay replay = new Replay(log);
+            int bad = replay.run();
+            if (bad >= 0) {
+                StdOut.println("Move " + bad + " did not do what was recorded");
+                return;
+            }
+            nanos += replay.getElapsedNanos();
+            if (t == times - 1) {
+                String[] outcome = { "still playing", "won", "lost" };
+                StdOut.println("Every move matched; the game was "
+                               + outcome[replay.getEngine().getStatus()]);
+            }
+        }
+        StdOut.printf("%.2f M moves/s\n", (double)log.getNumMoves() * times / nanos * 1e3);
+    }
+}
@@ -0,0 +1,327 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  SavedGame writes a game in progress to save.dat and reads it
+ *  back, so a game can be quit and picked up again later.
+ *----------------------------------------------------------------*/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A <i>SavedGame</i> object holds everything needed to pick a game up where it
+ * was left: the seed, the size of the board, which cells hide mines, which are
+ * revealed and which are flagged, who was playing at what difficulty, and how
+ * long they had been playing.
+ *
+ * The file starts with a small fixed header: the magic number "MSSV", a format
+ * version, the seed, the board size and number of mines, and the elapsed time.
+ * The cells follow, compressed:
+ *   - Mines are normally not stored at all. Deploying mines is deterministic
+ *     given the seed, so they are deployed again from the seed, and a
+ *     checksum of the mine positions in the header makes sure the result is
+ *     the same board. A board whose mines didn't come from a known seed has
+ *     its mines stored instead.
+ *   - The revealed and flagged cells are each stored as run lengths, in row
+ *     order: the number of cells that are not set, then the number that are,
+ *     and so on, each as a variable-length number. Revealed cells come in
+ *     large connected regions and flags are few, so this is small.
+ * All of the cells are then run through Deflater. A 1000 x 1000 board in
+ * progress takes a few kilobytes.
+ */
+public class SavedGame {
+
+    /**
+     * The first four bytes of every saved game: "MSSV".
+     */
+    public static final int MAGIC = 0x4D535356;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    // Header flag: the mines are deployed again from the seed, not stored.
+    private static final int MINES_FROM_SEED = 1;
+
+    // The board, with its mines deployed and cells revealed and flagged.
+    private final Board board;
+
+    // The seed the mines were deployed from, if seeded is true.
+    private final long seed;
+    private final boolean seeded;
+
+    // Who was playing, and at what difficulty level.
+    private final String username;
+    private final String difficulty;
+
+    // Time played so far, in milliseconds.
+    private final long elapsedMillis;
+
+    /**
+     * Initialize a saved game, ready to be written with save().
+     * @param board the board being played.
+     * @param seed the seed the mines were deployed from.
+     * @param seeded true if the mines were deployed from the seed, by setting
+     * StdRandom's seed then calling Board.deployMines once.
+     * @param username who is playing.
+     * @param difficulty the difficulty level.
+     * @param elapsedMillis the time played so far, in milliseconds.
+     */
+    public SavedGame(Board board, long seed, boolean seeded,
+                     String username, String difficulty, long elapsedMillis) {
+        this.board = board;
+        this.seed = seed;
+        this.seeded = seeded;
+        this.username = username;
+        this.difficulty = difficulty;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Get the board, with its mines deployed and cells revealed and flagged.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the seed the mines were deployed from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns true if the mines were deployed from the seed.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Get the name of the user who was playing.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Get the difficulty level.
+     */
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Get the time played so far, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Write this game to the given file. The file is replaced in one atomic
+     * step, so a crash part way through leaves the old file in place.
+     */
+    public void save(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(seeded ? MINES_FROM_SEED : 0);
+        out.writeLong(seed);
+        out.writeInt(board.getNumRows());
+        out.writeInt(board.getNumCols());
+        out.writeInt(board.getNumMines());
+        out.writeLong(mineChecksum(board));
+        out.writeLong(elapsedMillis);
+        out.writeUTF(username == null ? "" : username);
+        out.writeUTF(difficulty == null ? "" : difficulty);
+
+        DeflaterOutputStream z = new DeflaterOutputStream(out);
+        BufferedOutputStream cells = new BufferedOutputStream(z);
+        if (!seeded)
+            writeRuns(cells, board, MINES);
+        writeRuns(cells, board, REVEALED);
+        writeRuns(cells, board, FLAGGED);
+        cells.flush();
+        z.finish();
+        out.flush();
+
+        ScoreLog.writeAtomically(file, ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Returns true if the given file exists and holds a saved game.
+     */
+    public static boolean isSavedGame(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < 4)
+            return false;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Read a saved game back from the given file.
+     * @throws IOException if the file can't be read, is not a saved game, or
+     * its mines don't match its seed.
+     */
+    public static SavedGame load(Path file) throws IOException {
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(Files.readAllBytes(file)));
+        if (in.readInt() != MAGIC)
+            throw new IOException(file + " is not a saved game");
+        int version = in.readShort();
+        if (version != VERSION)
+            throw new IOException(file + " has unknown version " + version);
+        boolean seeded = (in.readShort() & MINES_FROM_SEED) != 0;
+        long seed = in.readLong();
+        int numRows = in.readInt();
+        int numCols = in.readInt();
+        int numMines = in.readInt();
+        long checksum = in.readLong();
+        long elapsedMillis = in.readLong();
+        String username = in.readUTF();
+        String difficulty = in.readUTF();
+
+        Board board = new Board(numRows, numCols);
+        InputStream z = new BufferedInputStream(new InflaterInputStream(in));
+        if (seeded) {
+            StdRandom.setSeed(seed);
+            board.deployMines(numMines);
+        } else {
+            readRuns(z, board, MINES);
+            countNeighbors(board);
+        }
+        if (board.getNumMines() != numMines || mineChecksum(board) != checksum)
+            throw new IOException(file + " has mines that don't match its seed");
+        readRuns(z, board, REVEALED);
+        readRuns(z, board, FLAGGED);
+
+        return new SavedGame(board, seed, seeded, username, difficulty, elapsedMillis);
+    }
+
+    // Which of a board's bitsets to read or write.
+    private static final int MINES = 0;
+    private static final int REVEALED = 1;
+    private static final int FLAGGED = 2;
+
+    private static boolean isSet(Board board, int which, long i) {
+        if (which == MINES)
+            return board.isMine(i);
+        else if (which == REVEALED)
+            return board.isRevealed(i);
+        else
+            return board.isFlagged(i);
+    }
+
+    private static void set(Board board, int which, long i) {
+        if (which == MINES)
+            board.plantMine(i);
+        else if (which == REVEALED)
+            board.reveal(i);
+        else
+            board.flag(i);
+    }
+
+    // Write one bitset, over the real cells in row order, as alternating run
+    // lengths of cells that are not set and cells that are.
+    private static void writeRuns(OutputStream out, Board board, int which) throws IOException {
+        boolean current = false;
+        long run = 0;
+        for (int r = 0; r < board.getNumRows(); r++) {
+            long i = board.index(r, 0);
+            for (int c = 0; c < board.getNumCols(); c++, i++) {
+                if (isSet(board, which, i) != current) {
+                    writeVarLong(out, run);
+                    current = !current;
+                    run = 0;
+                }
+                run++;
+            }
+        }
+        writeVarLong(out, run);
+    }
+
+    // Read one bitset written by writeRuns(), setting the cells on the board.
+    private static void readRuns(InputStream in, Board board, int which) throws IOException {
+        long numCells = board.getNumCells();
+        int numCols = board.getNumCols();
+        boolean current = false;
+        long cell = 0;
+        while (cell < numCells) {
+            long run = readVarLong(in);
+            if (run > numCells - cell)
+                throw new IOException("saved game is damaged");
+            if (current) {
+                for (long end = cell + run; cell < end; cell++)
+                    set(board, which, board.index((int)(cell / numCols), (int)(cell % numCols)));
+            } else {
+                cell += run;
+            }
+            current = !current;
+        }
+    }
+
+    // Work out every cell's neighbor mine count, for mines that were planted
+    // one at a time rather than deployed.
+    private static void countNeighbors(Board board) {
+        long[] offsets = board.getNeighborOffsets();
+        for (int k = 0; k < board.getNumMines(); k++)
+            for (long offset : offsets)
+                board.incrementNeighborMineCount(board.getMinePosition(k) + offset);
+    }
+
+    // A checksum of the mine positions. Each position is scrambled, and the
+    // results added up, so the order the mines were planted in doesn't matter.
+    private static long mineChecksum(Board board) {
+        long sum = 0;
+        for (int k = 0; k < board.getNumMines(); k++) {
+            long z = board.getMinePosition(k) + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            sum += z ^ (z >>> 31);
+        }
+        return sum;
+    }
+
+    // Write a number from 0 up, seven bits to a byte, low bits first, with
+    // the high bit of each byte set if more bytes follow.
+    private static void writeVarLong(OutputStream out, long n) throws IOException {
+        while ((n & ~0x7FL) != 0) {
+            out.write((int)((n & 0x7F) | 0x80));
+            n >>>= 7;
+        }
+        out.write((int)n);
+    }
+
+    // Read a number written by writeVarLong().
+    private static long readVarLong(InputStream in) throws IOException {
+        long n = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new IOException("saved game is cut short");
+            n |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return n;
+        }
+        throw new IOException("saved game is damaged");
+    }
+}
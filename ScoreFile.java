@@ -0,0 +1,386 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreFile reads and writes the binary format used for
+ *  leaderboard.dat, and converts the old text files.
+ *
+ *  You can convert a text file using:
+ *    java ScoreFile leaderboard.dat            # in place
+ *    java ScoreFile scores.txt leaderboard.dat # to a new file
+ *  and print a binary file as text using:
+ *    java ScoreFile -text leaderboard.dat
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A <i>ScoreFile</i> object reads a file of top scores in a compact binary
+ * format. The file is memory-mapped rather than read in, so looking at the
+ * first few scores of a difficulty level only touches the few pages that hold
+ * them, however many scores the file has.
+ *
+ * The layout, with every number big-endian:
+ *   - a 32 byte header: the magic number "MSLB", the format version, the
+ *     number of sections, a sequence number (see ScoreLog), the number of
+ *     names, and where the name index and name data start
+ *   - one 12 byte directory entry per section: the name id of the difficulty
+ *     level, the number of scores, and where the scores start
+ *   - each section's scores, best first, 12 bytes each: the score in
+ *     milliseconds, as a long, and the name id of the player
+ *   - the name index, a 4 byte offset for each name id
+ *   - the name data, each name as a 2 byte length then that many UTF-8 bytes
+ * Names are interned: a player who appears many times, and each difficulty
+ * level, is stored only once, and scores refer to it by its id.
+ *
+ * Files are written with a ScoreFile.Writer. Since a file is mapped in one
+ * piece, a file can be at most 2GB.
+ *
+ * Version 1 files, which held whole seconds in 8 byte entries (a 4 byte
+ * score, then the name id), can still be read. Their scores are turned into
+ * milliseconds as they are read.
+ */
+public class ScoreFile {
+
+    /**
+     * The first four bytes of every score file: "MSLB".
+     */
+    public static final int MAGIC = 0x4D534C42;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 2;
+
+    // Sizes of the fixed parts of the file.
+    private static final int HEADER_SIZE = 32;
+    private static final int SECTION_SIZE = 12;
+    private static final int ENTRY_SIZE = 12;
+
+    // Size of an entry in a version 1 file, which held seconds as an int.
+    private static final int V1_ENTRY_SIZE = 8;
+
+    // The whole file, usually mapped into memory.
+    private final ByteBuffer buf;
+
+    // The version of this file, and the size of each of its entries.
+    private final int version;
+    private final int entrySize;
+
+    // The sequence number stored in the header.
+    private final long seq;
+
+    // Difficulty levels in file order, and the directory entry of each.
+    private final String[] difficulties;
+    private final HashMap<String, Integer> sections = new HashMap<String, Integer>();
+
+    // Where the name index starts.
+    private final int nameIndex;
+
+    // Number of names in the name table.
+    private final int nameCount;
+
+    /**
+     * Open a score file. Only the header and the directory are read here;
+     * scores and names are read from the mapped file as they are asked for.
+     * @param file the file to open.
+     * @throws IOException if the file can't be read or is not a score file.
+     */
+    public ScoreFile(Path file) throws IOException {
+        this(map(file), file.toString());
+    }
+
+    // Read a score file held in a buffer.
+    private ScoreFile(ByteBuffer buf, String what) throws IOException {
+        this.buf = buf;
+        if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+            throw new IOException(what + " is not a score file");
+        version = buf.getShort(4);
+        if (version != 1 && version != VERSION)
+            throw new IOException(what + " has unknown version " + version);
+        entrySize = version == 1 ? V1_ENTRY_SIZE : ENTRY_SIZE;
+        int numSections = buf.getShort(6) & 0xffff;
+        seq = buf.getLong(8);
+        nameCount = buf.getInt(16);
+        nameIndex = buf.getInt(20);
+
+        difficulties = new String[numSections];
+        for (int s = 0; s < numSections; s++) {
+            difficulties[s] = nameOf(buf.getInt(HEADER_SIZE + s * SECTION_SIZE));
+            sections.put(difficulties[s], s);
+        }
+    }
+
+    // Map a whole file into memory.
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE)
+                throw new IOException(file + " is too big for a score file");
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    /**
+     * Open a file of scores that may be either a score file or one of the
+     * old text files. A text file is read in and laid out in memory, so
+     * either way the result works the same.
+     */
+    public static ScoreFile open(Path file) throws IOException {
+        if (isScoreFile(file))
+            return new ScoreFile(file);
+        Writer w = new Writer();
+        long seq = readText(file, w);
+        return new ScoreFile(w.toBuffer(seq), file.toString());
+    }
+
+    /**
+     * Returns true if the given file exists and starts with the magic number
+     * of a score file, rather than being one of the old text files.
+     */
+    public static boolean isScoreFile(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < 4)
+            return false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4);
+            while (b.hasRemaining() && ch.read(b) >= 0)
+                ;
+            return b.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Get the version of the format this file was written in.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the sequence number stored in the header.
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Get the difficulty levels in the file, in the order they were written.
+     */
+    public String[] getDifficulties() {
+        return difficulties.clone();
+    }
+
+    /**
+     * Get the number of scores for the given difficulty level.
+     */
+    public int getNumScores(String difficulty) {
+        Integer s = sections.get(difficulty);
+        return s == null ? 0 : buf.getInt(HEADER_SIZE + s * SECTION_SIZE + 4);
+    }
+
+    /**
+     * Get the i^th best score for the given difficulty level, in
+     * milliseconds, counting from zero, or -1 if there is no such position.
+     */
+    public long getScore(String difficulty, int i) {
+        int at = entry(difficulty, i);
+        if (at < 0)
+            return -1;
+        return version == 1 ? buf.getInt(at) * 1000L : buf.getLong(at);
+    }
+
+    /**
+     * Get the name that goes with the i^th best score for the given
+     * difficulty level, or null if there is no such position.
+     */
+    public String getName(String difficulty, int i) {
+        int at = entry(difficulty, i);
+        return at < 0 ? null : nameOf(buf.getInt(at + entrySize - 4));
+    }
+
+    // Where the i^th entry of a section starts, or -1.
+    private int entry(String difficulty, int i) {
+        Integer s = sections.get(difficulty);
+        if (s == null)
+            return -1;
+        int dir = HEADER_SIZE + s * SECTION_SIZE;
+        if (i < 0 || i >= buf.getInt(dir + 4))
+            return -1;
+        return buf.getInt(dir + 8) + i * entrySize;
+    }
+
+    // Decode the name with the given id.
+    private String nameOf(int id) {
+        if (id < 0 || id >= nameCount)
+            throw new IllegalStateException("bad name id " + id);
+        int at = buf.getInt(nameIndex + 4 * id);
+        byte[] bytes = new byte[buf.getShort(at) & 0xffff];
+        for (int k = 0; k < bytes.length; k++)
+            bytes[k] = buf.get(at + 2 + k);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A <i>ScoreFile.Writer</i> collects scores and lays them out in the
+     * binary format. Scores can be added in any order; each difficulty level
+     * is kept sorted as they are added, and ties stay in the order they were
+     * added.
+     */
+    public static class Writer {
+
+        // Difficulty levels in the order they were first added.
+        private final List<String> difficulties = new ArrayList<String>();
+
+        // All of the scores for each difficulty level, best first.
+        private final HashMap<String, ScoreList> lists = new HashMap<String, ScoreList>();
+
+        // Id of each name, and the names in id order.
+        private final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+        private final List<byte[]> names = new ArrayList<byte[]>();
+
+        /**
+         * Add a score.
+         */
+        public void add(String difficulty, String name, long score) {
+            ScoreList list = lists.get(difficulty);
+            if (list == null) {
+                list = new ScoreList(Integer.MAX_VALUE);
+                lists.put(difficulty, list);
+                difficulties.add(difficulty);
+                intern(difficulty);
+            }
+            list.insert(name, score);
+            intern(name);
+        }
+
+        // Get the id of a name, giving it the next id if it is new.
+        private int intern(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xffff)
+                    throw new IllegalArgumentException("name too long: " + name);
+                id = names.size();
+                ids.put(name, id);
+                names.add(bytes);
+            }
+            return id;
+        }
+
+        /**
+         * Lay out everything added so far as a score file, with the given
+         * sequence number in its header.
+         * @return a buffer holding the whole file, ready to be written.
+         */
+        public ByteBuffer toBuffer(long seq) {
+            long entries = 0;
+            for (String d : difficulties)
+                entries += lists.get(d).size();
+            long nameBytes = 0;
+            for (byte[] n : names)
+                nameBytes += 2 + n.length;
+            long nameIndex = HEADER_SIZE + (long)SECTION_SIZE * difficulties.size()
+                + ENTRY_SIZE * entries;
+            long nameData = nameIndex + 4L * names.size();
+            long size = nameData + nameBytes;
+            if (size > Integer.MAX_VALUE || difficulties.size() > 0xffff)
+                throw new IllegalStateException("too many scores for one file");
+
+            ByteBuffer out = ByteBuffer.allocate((int)size);
+            out.putInt(MAGIC).putShort((short)VERSION).putShort((short)difficulties.size());
+            out.putLong(seq).putInt(names.size()).putInt((int)nameIndex).putInt((int)nameData);
+            out.putInt(0); // reserved
+
+            int at = HEADER_SIZE + SECTION_SIZE * difficulties.size();
+            for (String d : difficulties) {
+                int n = lists.get(d).size();
+                out.putInt(ids.get(d)).putInt(n).putInt(at);
+                at += ENTRY_SIZE * n;
+            }
+            for (String d : difficulties) {
+                ScoreList list = lists.get(d);
+                for (int i = 0; i < list.size(); i++)
+                    out.putLong(list.getScore(i)).putInt(ids.get(list.getName(i)));
+            }
+            at = (int)nameData;
+            for (byte[] n : names) {
+                out.putInt(at);
+                at += 2 + n.length;
+            }
+            for (byte[] n : names)
+                out.putShort((short)n.length).put(n);
+            out.flip();
+            return out;
+        }
+    }
+
+    /**
+     * Read one of the old text files, with a "difficulty score name" line
+     * for each score and perhaps a "#seq N" line, into a Writer. Scores in
+     * the text files are in seconds, perhaps with a fraction, and are turned
+     * into milliseconds.
+     * @return the sequence number from the file, or 0 if it had none.
+     */
+    public static long readText(Path file, Writer w) throws IOException {
+        long seq = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith("#seq ")) {
+                seq = Long.parseLong(line.substring(5).trim());
+                continue;
+            }
+            int a = line.indexOf(' ');
+            int b = a < 0 ? -1 : line.indexOf(' ', a + 1);
+            if (b < 0)
+                continue; // blank or damaged line
+            w.add(line.substring(0, a), line.substring(b + 1),
+                  Math.round(Double.parseDouble(line.substring(a + 1, b)) * 1000));
+        }
+        return seq;
+    }
+
+    /**
+     * A main() function, which converts a text file to a score file, or with
+     * -text prints a score file as text.
+     */
+    public static void main(String args[]) {
+        try {
+            if (args.length == 2 && args[0].equals("-text")) {
+                ScoreFile f = new ScoreFile(Paths.get(args[1]));
+                if (f.getSeq() != 0)
+                    StdOut.println("#seq " + f.getSeq());
+                for (String d : f.getDifficulties())
+                    for (int i = 0; i < f.getNumScores(d); i++)
+                        StdOut.printf("%s %.3f %s\n", d, f.getScore(d, i) / 1000.0, f.getName(d, i));
+            } else if (args.length == 1 || args.length == 2) {
+                Path in = Paths.get(args[0]);
+                Path out = Paths.get(args[args.length - 1]);
+                if (isScoreFile(in)) {
+                    StdOut.println(in + " is already a score file");
+                    return;
+                }
+                Writer w = new Writer();
+                long seq = readText(in, w);
+                ByteBuffer b = w.toBuffer(seq);
+                Files.write(out, b.array());
+                StdOut.println("Wrote " + b.limit() + " bytes to " + out);
+            } else {
+                StdOut.println("Usage: java ScoreFile text-file [score-file]");
+                StdOut.println("       java ScoreFile -text score-file");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
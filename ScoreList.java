@@ -0,0 +1,328 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreList keeps the best scores for one difficulty level, in
+ *  order, up to some fixed number of them.
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * A <i>ScoreList</i> object holds the top names and scores for a single
+ * difficulty level, sorted from best (smallest) score to worst. A score is the
+ * time a game took, in milliseconds. It never holds more than its capacity;
+ * when it is full, a new score that is good enough to make the list pushes the
+ * worst one off the end.
+ *
+ * The scores are kept in a tree of chunks. Each leaf holds up to CHUNK scores
+ * and names in a pair of sorted arrays, and each node above holds up to
+ * CHUNK children along with the worst score and the number of scores under
+ * each. Finding where a score belongs, reading the i^th entry, inserting and
+ * dropping the worst score all walk one path down the tree, which is
+ * O(log N), and for tens of thousands of scores is two or three levels.
+ *
+ * Nodes are never changed once built. An insert builds new nodes along the
+ * path it walks and shares every other node with the old tree, so copy() is
+ * O(1), and a copy and the list it came from never see each other's inserts.
+ */
+public class ScoreList {
+
+    // Most scores in a leaf, and most children of any other node.
+    private static final int CHUNK = 64;
+
+    // A node of the tree: size scores, the worst of which is max.
+    private static abstract class Node {
+        final int size;
+        final long max;
+
+        Node(int size, long max) {
+            this.size = size;
+            this.max = max;
+        }
+    }
+
+    // A leaf: scores, best first, and the name that goes with each one.
+    private static final class Leaf extends Node {
+        final long[] scores;
+        final String[] names;
+
+        Leaf(long[] scores, String[] names) {
+            super(scores.length, scores[scores.length - 1]);
+            this.scores = scores;
+            this.names = names;
+        }
+    }
+
+    // A node with children: ends[k] is the number of scores in children 0
+    // to k, and maxes[k] is the worst score under child k.
+    private static final class Branch extends Node {
+        final Node[] children;
+        final int[] ends;
+        final long[] maxes;
+
+        Branch(Node[] children) {
+            this(children, ends(children));
+        }
+
+        private Branch(Node[] children, int[] ends) {
+            super(ends[ends.length - 1], children[children.length - 1].max);
+            this.children = children;
+            this.ends = ends;
+            this.maxes = new long[children.length];
+            for (int k = 0; k < children.length; k++)
+                maxes[k] = children[k].max;
+        }
+
+        private static int[] ends(Node[] children) {
+            int[] ends = new int[children.length];
+            int total = 0;
+            for (int k = 0; k < children.length; k++) {
+                total += children[k].size;
+                ends[k] = total;
+            }
+            return ends;
+        }
+
+        // Number of scores in the children before child k.
+        int before(int k) {
+            return k == 0 ? 0 : ends[k - 1];
+        }
+    }
+
+    // The most entries this list will ever hold.
+    private final int capacity;
+
+    // The root of the tree, or null if the list is empty.
+    private Node root = null;
+
+    // Once frozen, the list can no longer be changed.
+    private boolean frozen = false;
+
+    /**
+     * Initialize a new, empty list that holds at most the given number of
+     * scores.
+     * @param capacity the most scores to keep.
+     */
+    public ScoreList(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Make a new list, not frozen, holding the same scores as this one.
+     */
+    public ScoreList copy() {
+        ScoreList c = new ScoreList(capacity);
+        c.root = root;
+        return c;
+    }
+
+    /**
+     * Stop this list from ever being changed again, so it can be shared
+     * between threads without locking. Inserting into a frozen list throws
+     * IllegalStateException.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Get the most scores this list will hold.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of scores in the list.
+     */
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    // Index of the first of the first n values that is greater than key, or
+    // n if there is none.
+    private static int after(long[] a, int n, long key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private static int after(int[] a, int key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Get the position a new score would take in the list, where 0 is the
+     * best, or -1 if the list is full and the score is not good enough. A new
+     * score that ties an existing one goes after it, since the earlier score
+     * got there first.
+     * @param score the score to look up.
+     */
+    public int rankOf(long score) {
+        int pos = 0;
+        Node n = root;
+        while (n instanceof Branch) {
+            Branch b = (Branch)n;
+            int k = after(b.maxes, b.maxes.length, score);
+            if (k == b.children.length) {
+                pos += b.size;
+                n = null;
+            } else {
+                pos += b.before(k);
+                n = b.children[k];
+            }
+        }
+        if (n != null) {
+            Leaf leaf = (Leaf)n;
+            pos += after(leaf.scores, leaf.size, score);
+        }
+        return pos < capacity ? pos : -1;
+    }
+
+    /**
+     * Insert the given name and score, if it is good enough to make the list.
+     * @param name the user's name
+     * @param score the user's score
+     * @return the position of the new score, where 0 is the best, or -1 if
+     * the score didn't make the list.
+     */
+    public int insert(String name, long score) {
+        if (frozen)
+            throw new IllegalStateException("list is frozen");
+        int pos = rankOf(score);
+        if (pos < 0)
+            return -1;
+
+        // Drop the worst score first if the list is full. It is worse than
+        // the new one, so the new one's position doesn't change.
+        if (size() == capacity)
+            root = dropLast(root);
+
+        if (root == null) {
+            root = new Leaf(new long[] { score }, new String[] { name });
+        } else {
+            Node[] grown = insert(root, name, score);
+            root = grown.length == 1 ? grown[0] : new Branch(grown);
+        }
+        return pos;
+    }
+
+    // Insert a score under the given node, after any equal scores. Returns
+    // the new node, or two nodes if it had to be split.
+    private static Node[] insert(Node n, String name, long score) {
+        if (n instanceof Leaf) {
+            Leaf leaf = (Leaf)n;
+            int p = after(leaf.scores, leaf.size, score);
+            long[] scores = new long[leaf.size + 1];
+            String[] names = new String[leaf.size + 1];
+            System.arraycopy(leaf.scores, 0, scores, 0, p);
+            System.arraycopy(leaf.names, 0, names, 0, p);
+            scores[p] = score;
+            names[p] = name;
+            System.arraycopy(leaf.scores, p, scores, p + 1, leaf.size - p);
+            System.arraycopy(leaf.names, p, names, p + 1, leaf.size - p);
+            if (scores.length <= CHUNK)
+                return new Node[] { new Leaf(scores, names) };
+            int half = scores.length / 2;
+            return new Node[] {
+                new Leaf(Arrays.copyOfRange(scores, 0, half), Arrays.copyOfRange(names, 0, half)),
+                new Leaf(Arrays.copyOfRange(scores, half, scores.length),
+                         Arrays.copyOfRange(names, half, names.length))
+            };
+        }
+
+        Branch b = (Branch)n;
+        int k = Math.min(after(b.maxes, b.maxes.length, score), b.children.length - 1);
+        Node[] grown = insert(b.children[k], name, score);
+        Node[] children = new Node[b.children.length + grown.length - 1];
+        System.arraycopy(b.children, 0, children, 0, k);
+        System.arraycopy(grown, 0, children, k, grown.length);
+        System.arraycopy(b.children, k + 1, children, k + grown.length, b.children.length - k - 1);
+        if (children.length <= CHUNK)
+            return new Node[] { new Branch(children) };
+        int half = children.length / 2;
+        return new Node[] {
+            new Branch(Arrays.copyOfRange(children, 0, half)),
+            new Branch(Arrays.copyOfRange(children, half, children.length))
+        };
+    }
+
+    // Remove the worst score under the given node. Returns the new node, or
+    // null if nothing is left under it. A branch left with one child is
+    // replaced by that child.
+    private static Node dropLast(Node n) {
+        if (n instanceof Leaf) {
+            Leaf leaf = (Leaf)n;
+            if (leaf.size == 1)
+                return null;
+            return new Leaf(Arrays.copyOf(leaf.scores, leaf.size - 1),
+                            Arrays.copyOf(leaf.names, leaf.size - 1));
+        }
+
+        Branch b = (Branch)n;
+        int last = b.children.length - 1;
+        Node shrunk = dropLast(b.children[last]);
+        Node[] children;
+        if (shrunk == null) {
+            children = Arrays.copyOf(b.children, last);
+        } else {
+            children = b.children.clone();
+            children[last] = shrunk;
+        }
+        return children.length == 1 ? children[0] : new Branch(children);
+    }
+
+    // Find the leaf holding the i^th entry. Returns the leaf, and leaves the
+    // entry's position within it in at[0].
+    private Leaf leafOf(int i, int[] at) {
+        Node n = root;
+        while (n instanceof Branch) {
+            Branch b = (Branch)n;
+            int k = after(b.ends, i);
+            i -= b.before(k);
+            n = b.children[k];
+        }
+        at[0] = i;
+        return (Leaf)n;
+    }
+
+    /**
+     * Get the i^th score in the list, counting from zero, or -1 if there is
+     * no such position.
+     */
+    public long getScore(int i) {
+        if (i < 0 || i >= size())
+            return -1;
+        int[] at = new int[1];
+        return leafOf(i, at).scores[at[0]];
+    }
+
+    /**
+     * Get the i^th name in the list, counting from zero, or null if there is
+     * no such position.
+     */
+    public String getName(int i) {
+        if (i < 0 || i >= size())
+            return null;
+        int[] at = new int[1];
+        return leafOf(i, at).names[at[0]];
+    }
+}
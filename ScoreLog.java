@@ -0,0 +1,436 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreLog stores leaderboard scores on disk as a snapshot file
+ *  plus an append-only log of the scores added since, so saving
+ *  never rewrites the whole file and a crash can't lose it.
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+/**
+ * A <i>ScoreLog</i> object keeps a ScoreStore's scores on disk in two files:
+ *   - a snapshot, e.g. leaderboard.dat, holding every score as of some point,
+ *     in the binary format of ScoreFile (an old text file also loads)
+ *   - a log, e.g. leaderboard.log, holding each score inserted since then
+ *
+ * Saving appends the new scores to the end of the log and forces them to
+ * disk before returning, so a save writes only what changed. Each log record
+ * is length-prefixed and carries a checksum; if the program dies part way
+ * through an append, the torn record is noticed and cut off the next time the
+ * log is loaded, and everything before it is kept.
+ *
+ * Once the log gets long, it is compacted on a background thread: a new
+ * snapshot is written to a temporary file, forced to disk, and renamed over
+ * the old one in a single atomic step, then the log is cut back to just the
+ * records the new snapshot doesn't already have. Every record has a sequence
+ * number and the snapshot's header records the last one it includes, so a
+ * crash at any point during compaction leaves files that load correctly.
+ *
+ * The log starts with an 8 byte header: the magic number "MSLG" and the
+ * format version. Scores are in milliseconds. A log written before there was
+ * a header holds whole seconds; it is still read, and is rewritten in the
+ * current format the first time it is loaded.
+ */
+public class ScoreLog {
+
+    /**
+     * Number of records the log may hold before it is compacted.
+     */
+    public static final int COMPACT_THRESHOLD = 1000;
+
+    /**
+     * The first four bytes of a log file: "MSLG".
+     */
+    public static final int MAGIC = 0x4D534C47;
+
+    /**
+     * The version of the log format written by this class.
+     */
+    public static final int VERSION = 2;
+
+    // Size of the header at the start of the log.
+    private static final int HEADER_SIZE = 8;
+
+    // Size of the smallest record body: seq, score, and two empty strings.
+    // The score is a long, or in the old format an int.
+    private static final int MIN_BODY = 8 + 8 + 2 + 2;
+    private static final int V1_MIN_BODY = 8 + 4 + 2 + 2;
+
+    // Most bytes a difficulty or name may take in UTF-8, since its length
+    // is written as an unsigned short.
+    private static final int MAX_STRING_BYTES = 0xffff;
+
+    // The two files.
+    private final Path snapshotFile;
+    private final Path logFile;
+
+    // Scores inserted but not yet saved, in the order they were inserted.
+    private final List<Record> pending = new ArrayList<Record>();
+
+    // Sequence number of the last record handed out.
+    private long lastSeq = 0;
+
+    // Number of records in the log file.
+    private int logRecords = 0;
+
+    // Whether a compaction is queued or running.
+    private boolean compacting = false;
+
+    // Held while a compaction writes its files, so two never overlap.
+    private final Object compactLock = new Object();
+
+    // Sequence number of the newest snapshot written by a compaction.
+    private long snapshotSeq = 0;
+
+    // Runs compactions, one at a time, off the caller's thread.
+    private static final ExecutorService compactor =
+        Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "leaderboard-compactor");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    // One score, as stored in the log.
+    private static class Record {
+        final long seq;
+        final String difficulty;
+        final String name;
+        final long score;
+
+        Record(long seq, String difficulty, String name, long score) {
+            this.seq = seq;
+            this.difficulty = difficulty;
+            this.name = name;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Initialize a log kept in the given snapshot file and log file. Nothing
+     * is read until load() is called.
+     */
+    public ScoreLog(String snapshotFile, String logFile) {
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.logFile = Paths.get(logFile);
+    }
+
+    /**
+     * Load every saved score into the given store: first the snapshot,
+     * then any logged records that came after it. A torn record at the end of
+     * the log is cut off, and a log in the old format is rewritten in the
+     * current one.
+     */
+    public synchronized void load(ScoreStore store) throws IOException {
+        snapshotSeq = loadSnapshot(store);
+        lastSeq = snapshotSeq;
+
+        List<Record> records = new ArrayList<Record>();
+        long goodLength = readLog(records);
+        if (Files.exists(logFile) && Files.size(logFile) > 0 && !isCurrentLog()) {
+            writeAtomically(logFile, layout(records));
+        } else if (Files.exists(logFile) && goodLength < Files.size(logFile)) {
+            try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                ch.truncate(goodLength);
+                ch.force(true);
+            }
+        }
+
+        logRecords = records.size();
+        for (Record r : records) {
+            if (r.seq > snapshotSeq)
+                store.restore(r.difficulty, r.name, r.score);
+            lastSeq = Math.max(lastSeq, r.seq);
+        }
+    }
+
+    // Read the snapshot, if there is one, and return its sequence number.
+    // Only as many scores as the store keeps are read from each
+    // difficulty level, so the rest of the file is never touched.
+    private long loadSnapshot(ScoreStore store) throws IOException {
+        if (!Files.exists(snapshotFile))
+            return 0;
+        ScoreFile f = ScoreFile.open(snapshotFile);
+        for (String difficulty : f.getDifficulties()) {
+            int n = Math.min(f.getNumScores(difficulty), store.getCapacity());
+            for (int i = 0; i < n; i++)
+                store.restore(difficulty, f.getName(difficulty, i), f.getScore(difficulty, i));
+        }
+        return f.getSeq();
+    }
+
+    // Returns true if the log starts with the header of the current format.
+    private boolean isCurrentLog() throws IOException {
+        try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE);
+            while (b.hasRemaining() && ch.read(b) >= 0)
+                ;
+            return b.position() == HEADER_SIZE && b.getInt(0) == MAGIC
+                && b.getInt(4) == VERSION;
+        }
+    }
+
+    // Read every intact record in the log into the given list, and return the
+    // length of the log up to the end of the last intact record. A log with no
+    // header is in the old format, with scores in whole seconds. Anything
+    // that doesn't read as a whole record, such as the zeros a crash can
+    // leave at the end of a file, is taken as the torn end of the log.
+    private long readLog(List<Record> records) throws IOException {
+        if (!Files.exists(logFile))
+            return 0;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        int version = 1;
+        if (buf.remaining() >= HEADER_SIZE && buf.getInt(0) == MAGIC) {
+            version = buf.getInt(4);
+            if (version != VERSION)
+                throw new IOException(logFile + " has unknown version " + version);
+            buf.position(HEADER_SIZE);
+        }
+        int minBody = version == 1 ? V1_MIN_BODY : MIN_BODY;
+        CRC32 crc = new CRC32();
+        while (buf.remaining() >= 4) {
+            int start = buf.position();
+            int length = buf.getInt();
+            if (length < minBody || buf.remaining() < (long)length + 8) {
+                buf.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(buf.array(), buf.position(), length);
+            ByteBuffer body = buf.slice();
+            body.limit(length);
+            buf.position(buf.position() + length);
+            int sum = buf.getInt();
+            int trailer = buf.getInt();
+            Record r = null;
+            if (sum == (int)crc.getValue() && trailer == length)
+                r = decode(body, version);
+            if (r == null) {
+                buf.position(start);
+                break;
+            }
+            records.add(r);
+        }
+        return buf.position();
+    }
+
+    // Record layout: seq, score, then difficulty and name as UTF-8 with
+    // their lengths in front. The score is a long number of milliseconds, or
+    // in the old format an int number of seconds. Returns null if the body
+    // doesn't hold a whole record.
+    private static Record decode(ByteBuffer body, int version) {
+        try {
+            return decodeOrThrow(body, version);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static Record decodeOrThrow(ByteBuffer body, int version) {
+        long seq = body.getLong();
+        long score = version == 1 ? body.getInt() * 1000L : body.getLong();
+        String difficulty = getString(body);
+        String name = getString(body);
+        return new Record(seq, difficulty, name, score);
+    }
+
+    private static String getString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort() & 0xffff];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Append a record to a buffer: length, body, checksum, then the length
+    // again, so a record is only complete once its last byte is written.
+    private static void encode(Record r, ByteBuffer out) {
+        byte[] d = r.difficulty.getBytes(StandardCharsets.UTF_8);
+        byte[] n = r.name.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 8 + 2 + d.length + 2 + n.length;
+        out.putInt(length);
+        int start = out.position();
+        out.putLong(r.seq).putLong(r.score);
+        out.putShort((short)d.length).put(d);
+        out.putShort((short)n.length).put(n);
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), start, length);
+        out.putInt((int)crc.getValue());
+        out.putInt(length);
+    }
+
+    // Number of bytes encode() will use for a record.
+    private static int encodedSize(Record r) {
+        return 4 + 8 + 8 + 2 + r.difficulty.getBytes(StandardCharsets.UTF_8).length
+            + 2 + r.name.getBytes(StandardCharsets.UTF_8).length + 4 + 4;
+    }
+
+    /**
+     * Remember a score that was just inserted into the store, so that
+     * the next save() writes it out.
+     * @throws IllegalArgumentException if the difficulty or name is longer
+     *         than 65535 bytes in UTF-8.
+     */
+    public synchronized void record(String difficulty, String name, long score) {
+        checkLength("difficulty", difficulty);
+        checkLength("name", name);
+        pending.add(new Record(++lastSeq, difficulty, name, score));
+    }
+
+    private static void checkLength(String what, String s) {
+        int n = s.getBytes(StandardCharsets.UTF_8).length;
+        if (n > MAX_STRING_BYTES)
+            throw new IllegalArgumentException(what + " is " + n + " bytes in UTF-8, more than "
+                                               + MAX_STRING_BYTES);
+    }
+
+    /**
+     * Append every score recorded since the last save to the log, and force
+     * them to disk.
+     */
+    public synchronized void save() throws IOException {
+        if (!pending.isEmpty()) {
+            append(pending);
+            logRecords += pending.size();
+            pending.clear();
+        }
+    }
+
+    /**
+     * Returns true if the log has grown long enough to be compacted, and no
+     * compaction is already under way.
+     */
+    public synchronized boolean needsCompaction() {
+        return logRecords > COMPACT_THRESHOLD && !compacting;
+    }
+
+    /**
+     * Get the sequence number of the last score recorded.
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    // Lay out a whole log file: the header, then the given records.
+    private static ByteBuffer layout(List<Record> records) {
+        int size = HEADER_SIZE;
+        for (Record r : records)
+            size += encodedSize(r);
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putInt(VERSION);
+        for (Record r : records)
+            encode(r, buf);
+        buf.flip();
+        return buf;
+    }
+
+    // Write records to the end of the log file and force them to disk. A new
+    // log gets its header first.
+    private void append(List<Record> records) throws IOException {
+        try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                                               StandardOpenOption.WRITE,
+                                               StandardOpenOption.APPEND)) {
+            ByteBuffer buf = layout(records);
+            if (ch.size() > 0)
+                buf.position(HEADER_SIZE);
+            while (buf.hasRemaining())
+                ch.write(buf);
+            ch.force(false);
+        }
+    }
+
+    /**
+     * Compact the log on a background thread: install the given snapshot,
+     * which holds every score up to sequence number seq, then cut the log
+     * back to the records after it. Does nothing if a compaction is already
+     * under way.
+     * @param contents the snapshot, laid out as a score file.
+     * @param seq the sequence number of the last score in the snapshot.
+     */
+    public void compactLater(final ByteBuffer contents, final long seq) {
+        synchronized (this) {
+            if (compacting)
+                return;
+            compacting = true;
+        }
+        compactor.execute(new Runnable() {
+            public void run() {
+                try {
+                    compact(contents, seq);
+                } catch (IOException e) {
+                    System.err.println("Could not compact leaderboard: " + e);
+                } finally {
+                    synchronized (ScoreLog.this) {
+                        compacting = false;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compact the log right now, on the caller's thread, the same way as
+     * compactLater(). If a newer snapshot is already in place, this does
+     * nothing.
+     * @param contents the snapshot, laid out as a score file.
+     * @param seq the sequence number of the last score in the snapshot.
+     */
+    public void compact(ByteBuffer contents, long seq) throws IOException {
+        synchronized (compactLock) {
+            if (seq <= snapshotSeq)
+                return;
+            writeAtomically(snapshotFile, contents);
+            snapshotSeq = seq;
+            rewriteLog(seq);
+        }
+    }
+
+    // Cut the log back to just the records after seq.
+    private void rewriteLog(long seq) throws IOException {
+        synchronized (this) {
+            List<Record> records = new ArrayList<Record>();
+            readLog(records);
+            List<Record> keep = new ArrayList<Record>();
+            for (Record r : records)
+                if (r.seq > seq)
+                    keep.add(r);
+            writeAtomically(logFile, layout(keep));
+            logRecords = keep.size();
+        }
+    }
+
+    // Replace a file with new contents: write a temporary file next to it,
+    // force it to disk, then rename it into place in one atomic step.
+    static void writeAtomically(Path file, ByteBuffer contents) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (contents.hasRemaining())
+                    ch.write(contents);
+                ch.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
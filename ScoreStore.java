@@ -0,0 +1,244 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreStore holds the top scores for every difficulty level,
+ *  safely shared by any number of games running at once.
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A <i>ScoreStore</i> object keeps a sorted list of the top scores for each
+ * difficulty level, and, if it is given a ScoreLog, keeps them on disk too.
+ * It has nothing to do with windows; a Leaderboard shows the scores in one.
+ *
+ * Any number of threads may insert and read scores at once:
+ *   - Each difficulty level has its own lock, so games at different levels
+ *     never wait for each other.
+ *   - The scores for a level are held in a frozen ScoreList that never
+ *     changes. An insert copies it, changes the copy, freezes it, and then
+ *     puts it in place of the old one. Readers just pick up whichever list
+ *     is in place, without locking, and always see a consistent set of
+ *     scores, however many inserts happen while they read it. A copy
+ *     shares all but the changed path of the list's tree with the old
+ *     one, so an insert costs O(log N), not a copy of every score.
+ *   - A score that isn't good enough to make the list is turned away without
+ *     taking the lock or copying anything. Scores only ever get better, so a
+ *     score that doesn't make the list now never will.
+ */
+public class ScoreStore {
+
+    // The scores for one difficulty level.
+    private static class Section {
+        // Held while changing the scores.
+        final ReentrantLock lock = new ReentrantLock();
+
+        // The current scores, frozen.
+        volatile ScoreList scores;
+
+        Section(int capacity) {
+            scores = new ScoreList(capacity);
+            scores.freeze();
+        }
+    }
+
+    // The most scores kept for each difficulty level.
+    private final int capacity;
+
+    // The scores for each difficulty level.
+    private final ConcurrentHashMap<String, Section> sections =
+        new ConcurrentHashMap<String, Section>();
+
+    // Difficulty levels in the order they were first seen.
+    private final List<String> difficulties = new CopyOnWriteArrayList<String>();
+
+    // Held while adding a difficulty level, and while taking a snapshot for
+    // the log, so no level appears part way through a snapshot.
+    private final Object sectionsLock = new Object();
+
+    // The scores for a level with none yet.
+    private final ScoreList empty;
+
+    // Where the scores are kept on disk, or null to keep them only in memory.
+    private final ScoreLog log;
+
+    /**
+     * Initialize a new, empty store that keeps the given number of scores for
+     * each difficulty level, only in memory.
+     * @param capacity the most scores to keep per difficulty level.
+     */
+    public ScoreStore(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Initialize a new, empty store that keeps the given number of scores for
+     * each difficulty level, and records every insert in the given log. Call
+     * load() to read the scores already saved.
+     * @param capacity the most scores to keep per difficulty level.
+     * @param log where to keep the scores on disk.
+     */
+    public ScoreStore(int capacity, ScoreLog log) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.log = log;
+        empty = new ScoreList(capacity);
+        empty.freeze();
+    }
+
+    /**
+     * Get the most scores kept for each difficulty level.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get every difficulty level that has a list of scores, in the order they
+     * were first seen. The list may grow, but never changes otherwise.
+     */
+    public List<String> getDifficulties() {
+        return difficulties;
+    }
+
+    // Get the section for a difficulty level, creating it if needed.
+    private Section sectionFor(String difficulty) {
+        Section s = sections.get(difficulty);
+        if (s != null)
+            return s;
+        synchronized (sectionsLock) {
+            s = sections.get(difficulty);
+            if (s == null) {
+                s = new Section(capacity);
+                sections.put(difficulty, s);
+                difficulties.add(difficulty);
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Get the current scores for a difficulty level. The list is frozen: it
+     * will never change, even as more scores are inserted, so it can be read
+     * without any locking. Returns an empty list if there are no scores at
+     * that level.
+     */
+    public ScoreList getScores(String difficulty) {
+        Section s = sections.get(difficulty);
+        return s == null ? empty : s.scores;
+    }
+
+    /**
+     * Insert the given name and score, if it is good enough to make the list.
+     * @param difficulty the difficulty level
+     * @param name the user's name
+     * @param score the user's score
+     * @return the ranking of the new score, where 0 is the best, or -1 if the
+     * score didn't make the list.
+     */
+    public int insert(String difficulty, String name, long score) {
+        return insert(difficulty, name, score, true);
+    }
+
+    // Insert a score that was read back from disk, without logging it again.
+    void restore(String difficulty, String name, long score) {
+        insert(difficulty, name, score, false);
+    }
+
+    private int insert(String difficulty, String name, long score, boolean logIt) {
+        Section s = sectionFor(difficulty);
+        if (s.scores.rankOf(score) < 0)
+            return -1;
+
+        s.lock.lock();
+        try {
+            ScoreList next = s.scores.copy();
+            int pos = next.insert(name, score);
+            if (pos < 0)
+                return -1;
+            next.freeze();
+            // Logged under the lock, so the log has the scores for each level
+            // in the same order they went into the list.
+            if (logIt && log != null)
+                log.record(difficulty, name, score);
+            s.scores = next;
+            return pos;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Load every saved score from the log. Does nothing if there is no log.
+     */
+    public void load() throws IOException {
+        if (log != null)
+            log.load(this);
+    }
+
+    /**
+     * Save every score inserted since the last save to the log, and start a
+     * compaction in the background if the log has grown long. Does nothing
+     * if there is no log.
+     */
+    public void save() throws IOException {
+        if (log == null)
+            return;
+        log.save();
+        if (log.needsCompaction()) {
+            long[] seq = new long[1];
+            ByteBuffer contents = snapshot(seq);
+            log.compactLater(contents, seq[0]);
+        }
+    }
+
+    /**
+     * Save every score, then compact the log right now, on the caller's
+     * thread. Does nothing if there is no log.
+     */
+    public void compact() throws IOException {
+        if (log == null)
+            return;
+        log.save();
+        long[] seq = new long[1];
+        ByteBuffer contents = snapshot(seq);
+        log.compact(contents, seq[0]);
+    }
+
+    // Lay out every score as a score file, and put the sequence number of the
+    // last insert it includes in seq[0]. Every level is locked while the
+    // lists are picked up, so no insert is half in the snapshot and half not.
+    private ByteBuffer snapshot(long[] seq) {
+        ScoreList[] lists;
+        String[] levels;
+        synchronized (sectionsLock) {
+            levels = difficulties.toArray(new String[0]);
+            lists = new ScoreList[levels.length];
+            int locked = 0;
+            try {
+                for (; locked < levels.length; locked++)
+                    sections.get(levels[locked]).lock.lock();
+                seq[0] = log.getLastSeq();
+                for (int k = 0; k < levels.length; k++)
+                    lists[k] = sections.get(levels[k]).scores;
+            } finally {
+                while (locked > 0)
+                    sections.get(levels[--locked]).lock.unlock();
+            }
+        }
+
+        ScoreFile.Writer w = new ScoreFile.Writer();
+        for (int k = 0; k < levels.length; k++)
+            for (int i = 0; i < lists[k].size(); i++)
+                w.add(levels[k], lists[k].getName(i), lists[k].getScore(i));
+        return w.toBuffer(seq[0]);
+    }
+}
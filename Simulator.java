@@ -0,0 +1,344 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Simulator plays many games with no window, in parallel on every
+ *  core, and reports how they went.
+ *
+ *  You can run the simulator using:
+ *    java Simulator firstSeed lastSeed rows cols mines [strategy]
+ *  for example, the 20x30 "medium" preset over a million seeds:
+ *    java Simulator 0 999999 20 30 20 random
+ *----------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A <i>Simulator</i> object plays one game for each seed in a range, using a
+ * Strategy, and collects the win rate and the spread of 3BV over the boards.
+ * 3BV (Bechtel's Board Benefit Value) is the fewest clicks that could clear a
+ * board: one for each opening (connected region of cells with no neighboring
+ * mines, plus the numbers around it) and one for each other safe cell. It is
+ * the usual measure of how much work a board is.
+ *
+ * The seeds are split up on a ForkJoinPool, which keeps every core busy by
+ * letting idle threads steal halves of other threads' ranges. Each thread
+ * keeps one Board and Engine and reuses them for every game it plays, so a
+ * run allocates almost nothing per game. Each game's mines are deployed just
+ * as Game deploys them, so seed s here is the same board as
+ * "java Minesweeper s" at the same size and mine count.
+ */
+public class Simulator {
+
+    // Fewest games a task plays itself rather than splitting in two.
+    private static final int SPLIT_SIZE = 64;
+
+    // The games to play.
+    private final int numRows;
+    private final int numCols;
+    private final int numMines;
+    private final Strategy strategy;
+
+    // One Worker per thread that has played any games, each holding its own
+    // board and counts. They are added up once every game is over.
+    private final List<Worker> workers = new ArrayList<Worker>();
+    private final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+        protected Worker initialValue() {
+            Worker w = new Worker();
+            synchronized (workers) {
+                workers.add(w);
+            }
+            return w;
+        }
+    };
+
+    /**
+     * Initialize a simulator for games on boards of the given size with the
+     * given number of mines, played by the given strategy.
+     */
+    public Simulator(int numRows, int numCols, int numMines, Strategy strategy) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numMines = numMines;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Get a strategy by name: "random", "solver" or "probability".
+     * @return the strategy, or null if there is none by that name.
+     */
+    public static Strategy strategyFor(String name) {
+        if (name.equals("random"))
+            return new RandomStrategy();
+        if (name.equals("solver"))
+            return new SolverStrategy();
+        if (name.equals("probability"))
+            return new SolverStrategy(true);
+        return null;
+    }
+
+    // Everything one thread needs to play games, reused from game to game,
+    // and the counts of how its games went.
+    private class Worker {
+        final Board board = new Board(numRows, numCols);
+        final Engine engine = new Engine(board);
+        final Random random = new Random();
+
+        // Scratch space for threeBV().
+        final long[] seen = new long[(int)((board.getPaddedSize() + 63) >>> 6)];
+        long[] stack = new long[64];
+
+        long played = 0;
+        long won = 0;
+
+        // bvCounts[b] is how many boards had a 3BV of b.
+        long[] bvCounts = new long[64];
+
+        // Play the game for one seed.
+        void play(long seed) {
+            board.clear();
+            random.setSeed(seed);
+            board.deployMines(numMines, random);
+            engine.restart();
+
+            int bv = threeBV();
+            if (bv >= bvCounts.length)
+                bvCounts = Arrays.copyOf(bvCounts, Math.max(bv + 1, 2 * bvCounts.length));
+            bvCounts[bv]++;
+
+            // The strategy gets its own stream of random numbers, seeded from
+            // the game's, so results don't depend on which thread played it.
+            random.setSeed(~seed);
+            strategy.play(engine, random);
+            played++;
+            if (engine.getStatus() == Engine.WON)
+                won++;
+        }
+
+        // Work out the 3BV of the board, before any moves are made.
+        int threeBV() {
+            Arrays.fill(seen, 0);
+            long[] offsets = board.getNeighborOffsets();
+            int bv = 0;
+
+            // Each opening counts once. Flood out from each zero cell not yet
+            // seen, marking the zeros and the numbers around them. Border
+            // cells are the only revealed cells on a fresh board, so they
+            // stop the flood.
+            for (int r = 0; r < numRows; r++) {
+                long i = board.index(r, 0);
+                for (int c = 0; c < numCols; c++, i++) {
+                    if (isSeen(i) || board.isMine(i) || board.getNeighborMineCount(i) != 0)
+                        continue;
+                    bv++;
+                    markSeen(i);
+                    int top = 0;
+                    stack[top++] = i;
+                    while (top > 0) {
+                        long j = stack[--top];
+                        for (long offset : offsets) {
+                            long k = j + offset;
+                            if (isSeen(k) || board.isRevealed(k))
+                                continue;
+                            markSeen(k);
+                            if (board.getNeighborMineCount(k) == 0) {
+                                if (top == stack.length)
+                                    stack = Arrays.copyOf(stack, 2 * top);
+                                stack[top++] = k;
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Every other safe cell needs a click of its own.
+            for (int r = 0; r < numRows; r++) {
+                long i = board.index(r, 0);
+                for (int c = 0; c < numCols; c++, i++)
+                    if (!isSeen(i) && !board.isMine(i))
+                        bv++;
+            }
+            return bv;
+        }
+
+        boolean isSeen(long i) {
+            return (seen[(int)(i >>> 6)] & (1L << i)) != 0;
+        }
+
+        void markSeen(long i) {
+            seen[(int)(i >>> 6)] |= 1L << i;
+        }
+    }
+
+    // Plays the games for the seeds from lo up to (but not including) hi,
+    // splitting the range in half until it is small.
+    private class Games extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long lo, hi;
+
+        Games(long lo, long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo <= SPLIT_SIZE) {
+                Worker w = worker.get();
+                for (long seed = lo; seed < hi; seed++)
+                    w.play(seed);
+                return;
+            }
+            long mid = lo + (hi - lo) / 2;
+            invokeAll(new Games(lo, mid), new Games(mid, hi));
+        }
+    }
+
+    /**
+     * Play one game for each seed from firstSeed to lastSeed, inclusive, on
+     * the given pool, and wait for them all to finish.
+     */
+    public void run(long firstSeed, long lastSeed, ForkJoinPool pool) {
+        pool.invoke(new Games(firstSeed, lastSeed + 1));
+    }
+
+    /**
+     * Get the number of games played so far.
+     */
+    public long getNumPlayed() {
+        long n = 0;
+        synchronized (workers) {
+            for (Worker w : workers)
+                n += w.played;
+        }
+        return n;
+    }
+
+    /**
+     * Get the number of games won so far.
+     */
+    public long getNumWon() {
+        long n = 0;
+        synchronized (workers) {
+            for (Worker w : workers)
+                n += w.won;
+        }
+        return n;
+    }
+
+    /**
+     * Get how many boards had each 3BV: element b of the result is the number
+     * of boards whose 3BV was b.
+     */
+    public long[] getThreeBVCounts() {
+        long[] total = new long[0];
+        synchronized (workers) {
+            for (Worker w : workers) {
+                if (w.bvCounts.length > total.length)
+                    total = Arrays.copyOf(total, w.bvCounts.length);
+                for (int b = 0; b < w.bvCounts.length; b++)
+                    total[b] += w.bvCounts[b];
+            }
+        }
+        return total;
+    }
+
+    // The smallest 3BV that at least the given fraction of boards are at or
+    // below.
+    private static int percentile(long[] counts, long n, double fraction) {
+        long target = (long)Math.ceil(fraction * n);
+        long seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= Math.max(target, 1))
+                return b;
+        }
+        return counts.length - 1;
+    }
+
+    /**
+     * Print the win rate, a summary and histogram of 3BV, and how fast the
+     * games were played. If no games were played, only says so.
+     * @param seconds how long the games took to play.
+     */
+    public void report(double seconds) {
+        long n = getNumPlayed();
+        long won = getNumWon();
+        long[] counts = getThreeBVCounts();
+
+        StdOut.printf("Played %d games: %d x %d, %d mines\n", n, numRows, numCols, numMines);
+        if (n == 0)
+            return;
+        StdOut.printf("Won %d (%.2f%%), lost %d\n", won, 100.0 * won / n, n - won);
+
+        long sum = 0;
+        int min = -1, max = 0;
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] == 0)
+                continue;
+            sum += b * counts[b];
+            if (min < 0)
+                min = b;
+            max = b;
+        }
+        StdOut.printf("3BV: mean %.1f, min %d, 10%% %d, median %d, 90%% %d, max %d\n",
+                      (double)sum / n, min, percentile(counts, n, 0.1),
+                      percentile(counts, n, 0.5), percentile(counts, n, 0.9), max);
+
+        // Histogram in at most 20 buckets, with bars scaled to the tallest.
+        int width = Math.max(1, (max - min + 20) / 20);
+        long[] buckets = new long[(max - min) / width + 1];
+        for (int b = min; b <= max; b++)
+            buckets[(b - min) / width] += counts[b];
+        long tallest = 0;
+        for (long c : buckets)
+            tallest = Math.max(tallest, c);
+        for (int k = 0; k < buckets.length; k++) {
+            int lo = min + k * width;
+            int bar = (int)Math.round(50.0 * buckets[k] / tallest);
+            StdOut.printf("  %6d-%-6d %10d %s\n", lo, lo + width - 1, buckets[k],
+                          new String(new char[bar]).replace('\0', '#'));
+        }
+
+        StdOut.printf("%.1f games/s (%.2f s)\n", n / seconds, seconds);
+    }
+
+    /**
+     * A main() function, which plays games for a range of seeds and reports
+     * the results.
+     */
+    public static void main(String args[]) {
+        if (args.length < 5) {
+            StdOut.println("Usage: java Simulator firstSeed lastSeed rows cols mines [strategy]");
+            return;
+        }
+        long firstSeed = Long.parseLong(args[0]);
+        long lastSeed = Long.parseLong(args[1]);
+        int numRows = Integer.parseInt(args[2]);
+        int numCols = Integer.parseInt(args[3]);
+        int numMines = Integer.parseInt(args[4]);
+        if (lastSeed < firstSeed || lastSeed == Long.MAX_VALUE) {
+            StdOut.println("lastSeed must be at least firstSeed, and less than " + Long.MAX_VALUE);
+            return;
+        }
+        String name = args.length > 5 ? args[5] : "random";
+        Strategy strategy = strategyFor(name);
+        if (strategy == null) {
+            StdOut.println("Unknown strategy: " + name);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        StdOut.printf("Strategy %s on %d threads\n", name, pool.getParallelism());
+        Simulator sim = new Simulator(numRows, numCols, numMines, strategy);
+        long start = System.nanoTime();
+        sim.run(firstSeed, lastSeed, pool);
+        sim.report((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,436 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Solver works out which hidden cells must be safe and which must
+ *  be mines, from the numbers showing on the board.
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * A <i>Solver</i> object follows a game on an Engine and deduces, from the
+ * revealed numbers alone, which hidden cells are certainly safe and which
+ * certainly hide mines. It never looks at where the mines really are, and it
+ * ignores the user's flags, which might be wrong.
+ *
+ * Every revealed number is a constraint: the number of mines among its hidden
+ * neighbors. The solver uses two rules:
+ *   - single cell: if a number's mines are all accounted for, its other
+ *     hidden neighbors are safe; if it has exactly as many hidden neighbors
+ *     as mines left, they are all mines
+ *   - subset: if one number's hidden neighbors are all also neighbors of
+ *     a second number, then the second number's other hidden neighbors hold
+ *     the difference between the two; if that is none of them or all of them,
+ *     they are all safe or all mines
+ *
+ * The solver is incremental. It listens to the board, and when a cell is
+ * revealed it queues just that cell and the revealed numbers around it; a
+ * deduction queues the numbers around the deduced cell. update() works only
+ * through the queue, so the cost of keeping up is proportional to what
+ * changed, not to the size of the board. Along the way it keeps track of the
+ * frontier: the revealed numbers that still have hidden neighbors that are
+ * not yet known to be safe or mines.
+ */
+public class Solver implements CellListener {
+
+    // The game being followed.
+    private final Engine engine;
+    private final Board board;
+
+    // Size of the padded board; cells two steps from the top or bottom row
+    // fall outside it.
+    private final long paddedSize;
+
+    // Offsets to the eight neighbors, and to the 24 cells within two steps,
+    // which are the only numbers that can share hidden neighbors with a
+    // given number.
+    private final long[] neighbors;
+    private final long[] zone;
+
+    // One bit per cell of the padded board.
+    private final long[] knownMine; // deduced to hide a mine
+    private final long[] knownSafe; // deduced to be safe
+    private final long[] frontier;  // revealed number with unknown neighbors
+    private final long[] queued;    // waiting in the queue
+
+    // Revealed cells to look at again.
+    private long[] queue = new long[64];
+    private int queueSize = 0;
+
+    // Cells deduced to be safe, in the order they were found. Some may since
+    // have been revealed; nextSafe() skips those.
+    private long[] safeCells = new long[64];
+    private int numSafe = 0;
+
+    // Every cell deduced to be safe or a mine, in the order they were found,
+    // so that other classes can catch up with what changed.
+    private long[] decided = new long[64];
+    private int numDecided = 0;
+
+    // Counts kept as bits are set and cleared.
+    private long frontierSize = 0;
+    private long numKnownMines = 0;
+    private long numSafeHidden = 0; // known to be safe but not yet revealed
+
+    // Scratch space for the hidden neighbors of two numbers.
+    private final long[] ua = new long[8];
+    private final long[] ub = new long[8];
+
+    /**
+     * Start following the game on the given engine. Any cells already
+     * revealed are queued, so the first update() looks at all of them once.
+     */
+    public Solver(Engine engine) {
+        this.engine = engine;
+        this.board = engine.getBoard();
+        this.neighbors = board.getNeighborOffsets();
+        this.paddedSize = board.getPaddedSize();
+        long stride = board.index(1, 0) - board.index(0, 0);
+        zone = new long[24];
+        int k = 0;
+        for (int dr = -2; dr <= 2; dr++)
+            for (int dc = -2; dc <= 2; dc++)
+                if (dr != 0 || dc != 0)
+                    zone[k++] = dr * stride + dc;
+
+        int words = (int)((board.getPaddedSize() + 63) >>> 6);
+        knownMine = new long[words];
+        knownSafe = new long[words];
+        frontier = new long[words];
+        queued = new long[words];
+
+        enqueueRevealed();
+        board.addCellListener(this);
+    }
+
+    /**
+     * Forget every deduction and start again on the game now on the board,
+     * e.g. after it has been cleared and dealt a new game. As in the
+     * constructor, any cells already revealed are queued. This reuses the
+     * solver's bitsets rather than allocating new ones.
+     */
+    public void reset() {
+        Arrays.fill(knownMine, 0);
+        Arrays.fill(knownSafe, 0);
+        Arrays.fill(frontier, 0);
+        Arrays.fill(queued, 0);
+        queueSize = 0;
+        numSafe = 0;
+        numDecided = 0;
+        frontierSize = 0;
+        numKnownMines = 0;
+        numSafeHidden = 0;
+        enqueueRevealed();
+    }
+
+    // Queue every revealed cell on the board.
+    private void enqueueRevealed() {
+        for (int r = 0; r < board.getNumRows(); r++) {
+            long i = board.index(r, 0);
+            for (int c = 0; c < board.getNumCols(); c++, i++)
+                if (board.isRevealed(i) && !board.isMine(i))
+                    enqueue(i);
+        }
+    }
+
+    /**
+     * Stop following the game.
+     */
+    public void detach() {
+        board.removeCellListener(this);
+    }
+
+    /**
+     * Get the engine whose game is being followed.
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    // Helpers for reading and writing single bits of a bitset.
+    private static boolean get(long[] bits, long i) {
+        return (bits[(int)(i >>> 6)] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, long i) {
+        bits[(int)(i >>> 6)] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, long i) {
+        bits[(int)(i >>> 6)] &= ~(1L << i);
+    }
+
+    /**
+     * Called by the board when a cell changes. A newly revealed cell is
+     * queued, along with the revealed numbers around it, which now have one
+     * hidden neighbor fewer. Flags are ignored.
+     */
+    public void cellChanged(long i) {
+        if (!board.isRevealed(i) || board.isMine(i))
+            return;
+        if (get(knownSafe, i))
+            numSafeHidden--;
+        enqueue(i);
+        enqueueNeighbors(i);
+    }
+
+    // Queue a revealed cell to be looked at, if it isn't queued already.
+    private void enqueue(long i) {
+        if (get(queued, i))
+            return;
+        set(queued, i);
+        if (queueSize == queue.length)
+            queue = Arrays.copyOf(queue, 2 * queueSize);
+        queue[queueSize++] = i;
+    }
+
+    // Queue the revealed numbers around a cell.
+    private void enqueueNeighbors(long i) {
+        for (long offset : neighbors) {
+            long j = i + offset;
+            if (board.isRevealed(j) && !board.isMine(j) && !board.isBorder(j))
+                enqueue(j);
+        }
+    }
+
+    /**
+     * Work through every cell queued since the last update, applying the
+     * rules until nothing more can be deduced from what is showing.
+     */
+    public void update() {
+        while (queueSize > 0) {
+            long a = queue[--queueSize];
+            clear(queued, a);
+            examine(a);
+        }
+    }
+
+    // Apply the rules to one revealed number.
+    private void examine(long a) {
+        int na = unknowns(a, ua);
+        setFrontier(a, na > 0);
+        if (na == 0)
+            return;
+
+        int ra = minesLeft(a);
+        if (ra == 0) {
+            for (int k = 0; k < na; k++)
+                markSafe(ua[k]);
+            return;
+        }
+        if (ra == na) {
+            for (int k = 0; k < na; k++)
+                markMine(ua[k]);
+            return;
+        }
+
+        // A deduction can change the hidden neighbors of this number and of
+        // the others, so after one, queue this number to be looked at again
+        // from the start rather than carry on with stale sets. Each time
+        // round decides at least one more cell, so this comes to an end.
+        for (long offset : zone) {
+            long b = a + offset;
+            if (b < 0 || b >= paddedSize || !get(frontier, b))
+                continue;
+            int nb = unknowns(b, ub);
+            if (nb == 0)
+                continue;
+            int rb = minesLeft(b);
+            boolean marked = false;
+            if (nb > na && contains(ub, nb, ua, na))
+                marked = apply(ub, nb, ua, na, rb - ra);
+            else if (na > nb && contains(ua, na, ub, nb))
+                marked = apply(ua, na, ub, nb, ra - rb);
+            if (marked) {
+                enqueue(a);
+                return;
+            }
+        }
+    }
+
+    // Given that the bigger set of cells holds the smaller, and that the
+    // cells in the bigger one but not the smaller hold the given number of
+    // mines, mark them if that is none or all of them. Returns true if any
+    // were marked.
+    private boolean apply(long[] big, int nBig, long[] small, int nSmall, int mines) {
+        int extra = nBig - nSmall;
+        if (mines != 0 && mines != extra)
+            return false;
+        for (int k = 0; k < nBig; k++) {
+            if (indexOf(small, nSmall, big[k]) >= 0)
+                continue;
+            if (mines == 0)
+                markSafe(big[k]);
+            else
+                markMine(big[k]);
+        }
+        return true;
+    }
+
+    // Returns true if every one of the first nSmall cells of small is among
+    // the first nBig cells of big.
+    private static boolean contains(long[] big, int nBig, long[] small, int nSmall) {
+        for (int k = 0; k < nSmall; k++)
+            if (indexOf(big, nBig, small[k]) < 0)
+                return false;
+        return true;
+    }
+
+    private static int indexOf(long[] cells, int n, long i) {
+        for (int k = 0; k < n; k++)
+            if (cells[k] == i)
+                return k;
+        return -1;
+    }
+
+    // Put the hidden neighbors of a cell that aren't yet known to be safe or
+    // mines into cells, and return how many there are.
+    private int unknowns(long i, long[] cells) {
+        int n = 0;
+        for (long offset : neighbors) {
+            long j = i + offset;
+            if (!board.isRevealed(j) && !get(knownMine, j) && !get(knownSafe, j))
+                cells[n++] = j;
+        }
+        return n;
+    }
+
+    // The number of a revealed cell, less the neighbors known to be mines.
+    private int minesLeft(long i) {
+        int n = board.getNeighborMineCount(i);
+        for (long offset : neighbors)
+            if (get(knownMine, i + offset))
+                n--;
+        return n;
+    }
+
+    private void setFrontier(long i, boolean on) {
+        if (on == get(frontier, i))
+            return;
+        if (on) {
+            set(frontier, i);
+            frontierSize++;
+        } else {
+            clear(frontier, i);
+            frontierSize--;
+        }
+    }
+
+    // Add a cell to the list of decided cells.
+    private void decide(long i) {
+        if (numDecided == decided.length)
+            decided = Arrays.copyOf(decided, 2 * numDecided);
+        decided[numDecided++] = i;
+    }
+
+    private void markSafe(long i) {
+        set(knownSafe, i);
+        decide(i);
+        numSafeHidden++;
+        if (numSafe == safeCells.length)
+            safeCells = Arrays.copyOf(safeCells, 2 * numSafe);
+        safeCells[numSafe++] = i;
+        enqueueNeighbors(i);
+    }
+
+    private void markMine(long i) {
+        set(knownMine, i);
+        decide(i);
+        numKnownMines++;
+        enqueueNeighbors(i);
+    }
+
+    /**
+     * Get a hidden cell that is certainly safe to reveal, or -1 if none is
+     * known. Call update() first to catch up with the board.
+     */
+    public long nextSafe() {
+        while (numSafe > 0) {
+            long i = safeCells[numSafe - 1];
+            if (!board.isRevealed(i))
+                return i;
+            numSafe--;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the cell at the given index has been deduced to be safe.
+     */
+    public boolean isKnownSafe(long i) {
+        return get(knownSafe, i);
+    }
+
+    /**
+     * Returns true if the cell at the given index has been deduced to hide a
+     * mine.
+     */
+    public boolean isKnownMine(long i) {
+        return get(knownMine, i);
+    }
+
+    /**
+     * Returns true if the cell at the given index is a revealed number with
+     * hidden neighbors that are not yet known to be safe or mines.
+     */
+    public boolean isFrontier(long i) {
+        return get(frontier, i);
+    }
+
+    /**
+     * Get the first cell on the frontier at or after the given index, or -1
+     * if there are none. Stepping through the frontier this way skips a whole
+     * word of cells that aren't on it at a time.
+     */
+    public long nextFrontier(long i) {
+        int w = (int)(i >>> 6);
+        if (w >= frontier.length)
+            return -1;
+        long bits = frontier[w] & (-1L << i);
+        while (bits == 0) {
+            if (++w == frontier.length)
+                return -1;
+            bits = frontier[w];
+        }
+        return ((long)w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Get the number of cells deduced to be safe or mines so far. Cells are
+     * never undecided again, so this only grows.
+     */
+    public int getNumDecided() {
+        return numDecided;
+    }
+
+    /**
+     * Get the k^th cell deduced to be safe or a mine, counting from zero, in
+     * the order they were found.
+     */
+    public long getDecided(int k) {
+        return decided[k];
+    }
+
+    /**
+     * Get the number of cells on the frontier.
+     */
+    public long getFrontierSize() {
+        return frontierSize;
+    }
+
+    /**
+     * Get the number of cells deduced to hide mines.
+     */
+    public long getNumKnownMines() {
+        return numKnownMines;
+    }
+
+    /**
+     * Get the number of cells deduced to be safe that are still hidden.
+     */
+    public long getNumSafeHidden() {
+        return numSafeHidden;
+    }
+}
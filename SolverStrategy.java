@@ -0,0 +1,75 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  SolverStrategy plays minesweeper using a Solver, guessing only
+ *  when it has to.
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * A <i>SolverStrategy</i> starts in the middle of the board, then keeps
+ * revealing cells the Solver has proved safe. When the solver is stuck, it
+ * guesses: either a random hidden cell that isn't known to hide a mine, or,
+ * if it uses probabilities, the cell a ProbabilitySolver finds least likely
+ * to hide one.
+ */
+public class SolverStrategy implements Strategy {
+
+    // Whether to guess using a ProbabilitySolver.
+    private final boolean useProbabilities;
+
+    /**
+     * Initialize a strategy that guesses at random.
+     */
+    public SolverStrategy() {
+        this(false);
+    }
+
+    /**
+     * Initialize a strategy that guesses at random, or using probabilities.
+     */
+    public SolverStrategy(boolean useProbabilities) {
+        this.useProbabilities = useProbabilities;
+    }
+
+    /**
+     * Play until the game is won or lost.
+     */
+    public void play(Engine engine, Random random) {
+        Board board = engine.getBoard();
+        Solver solver = new Solver(engine);
+        ProbabilitySolver odds = useProbabilities ? new ProbabilitySolver(solver) : null;
+        try {
+            engine.reveal(board.getNumRows() / 2, board.getNumCols() / 2);
+            while (!engine.isGameOver()) {
+                solver.update();
+                long i = solver.nextSafe();
+                if (i < 0 && odds != null) {
+                    odds.compute();
+                    i = odds.getSafestCell(random);
+                }
+                if (i < 0)
+                    i = guess(board, solver, random);
+                engine.reveal(board.rowOf(i), board.colOf(i));
+            }
+        } finally {
+            if (odds != null)
+                odds.detach();
+            solver.detach();
+        }
+    }
+
+    // Pick a random hidden cell that isn't known to be a mine. There always
+    // is one while the game is still being played.
+    private static long guess(Board board, Solver solver, Random random) {
+        while (true) {
+            long i = board.index(random.nextInt(board.getNumRows()),
+                                 random.nextInt(board.getNumCols()));
+            if (!board.isRevealed(i) && !solver.isKnownMine(i))
+                return i;
+        }
+    }
+}
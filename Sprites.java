@@ -0,0 +1,71 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Sprites keeps pre-scaled copies of the game's pictures, so they
+ *  are not decoded and rescaled every time they are drawn.
+ *----------------------------------------------------------------*/
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import javax.imageio.ImageIO;
+
+/**
+ * The <i>Sprites</i> class is a cache of pictures that have already been
+ * scaled to the size they are drawn at. The first time a picture is asked for
+ * at some size, it is decoded, scaled once, and written to a temporary PNG
+ * file of exactly that size; after that the same file name is handed back, so
+ * drawing it with Canvas.picture() copies it without any scaling. If a picture
+ * can't be read or written, the original file name is used instead.
+ */
+public class Sprites {
+
+    // Maps "file@WxH" to the name of a file holding the scaled picture.
+    private static final HashMap<String, String> cache = new HashMap<String, String>();
+
+    /**
+     * Get the name of a file holding the given picture scaled to the given
+     * width and height, scaling it now if this is the first time it has been
+     * asked for. Callers that draw every frame should hold on to the result
+     * rather than calling this again.
+     * @param filename the picture to scale.
+     * @param w the width to scale it to, in pixels.
+     * @param h the height to scale it to, in pixels.
+     * @return a file name to pass to Canvas.picture().
+     */
+    public static synchronized String scaled(String filename, int w, int h) {
+        String key = filename + "@" + w + "x" + h;
+        String path = cache.get(key);
+        if (path == null) {
+            path = scale(filename, w, h);
+            cache.put(key, path);
+        }
+        return path;
+    }
+
+    // Decode a picture, scale it, and save the result to a temporary file.
+    private static String scale(String filename, int w, int h) {
+        try {
+            BufferedImage src = ImageIO.read(new File(filename));
+            if (src == null || w <= 0 || h <= 0)
+                return filename;
+            BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = dst.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src, 0, 0, w, h, null);
+            g.dispose();
+            File out = File.createTempFile("sprite", ".png");
+            out.deleteOnExit();
+            ImageIO.write(dst, "png", out);
+            return out.getPath();
+        } catch (IOException e) {
+            return filename;
+        }
+    }
+}
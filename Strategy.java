@@ -0,0 +1,27 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  Strategy is a way of playing minesweeper with no one at the
+ *  mouse, used by Simulator.
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * A <i>Strategy</i> plays a game on an Engine by itself, making moves until
+ * the game is won or lost, or until it has no move it is willing to make.
+ * A Strategy may be used by several threads at once, each with its own
+ * Engine, so any state it keeps from one move to the next belongs in the
+ * play() call, not in fields.
+ */
+public interface Strategy {
+
+    /**
+     * Play the game on the given engine, from its first move.
+     * @param engine a game with its mines deployed and no moves made.
+     * @param random where to get random numbers, if the strategy guesses.
+     */
+    void play(Engine engine, Random random);
+}
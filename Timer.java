@@ -10,7 +10,12 @@ import GUI.*;
 
 /**
  * A <i>Timer</i> object keeps track of elapsed time. It can be started,
- * stopped, or reset. A Timer knows how to draw itself on a Canvas.
+ * paused, resumed, or reset. A Timer knows how to draw itself on a Canvas.
+ *
+ * Time is measured with System.nanoTime() and kept as a whole number of
+ * nanoseconds, so it never drifts from rounding, and it only ever counts
+ * forward: setting the computer's clock back or forward while a game is
+ * being played doesn't change how long the game took.
  */
 public class Timer extends GUI.Widget {
 
@@ -27,45 +32,66 @@ public class Timer extends GUI.Widget {
     // Whether we are currently counting or not.
     private boolean isCounting;
 
-    // Time of day at which we started counting.
-    private double startTime;
+    // Value of System.nanoTime() when we last started counting.
+    private long startNanos;
 
-    // Number of seconds elapsed so far.
-    private double elapsedSeconds;
+    // Nanoseconds counted before we last started counting.
+    private long elapsedNanos;
 
     /**
-     * Initialize a new timer.
+     * Initialize a new timer, stopped at zero.
      * @param x the x coordinate of the location to draw the timer.
      * @param y the y coordinate of the location to draw the timer.
      */
     public Timer(int x, int y) {
         super(x, y, WIDTH, HEIGHT);
         isCounting = false;
-        startTime = 0;
-        elapsedSeconds = 0;
+        startNanos = 0;
+        elapsedNanos = 0;
     }
 
     /**
-     * Start the timer.
+     * Start the timer. The time is cumulative, so a timer that was stopped
+     * carries on from where it was.
      */
     public void startCounting() {
         // If already counting, do nothing.
         if (isCounting)
             return;
-
-        // We subtract the previously elapsed seconds in order
-        // to get a total cumulative elapsed time, even if the
-        // timer is stopped then restarted.
-        startTime = System.currentTimeMillis()/1000.0 - elapsedSeconds;
+        startNanos = System.nanoTime();
         isCounting = true;
     }
 
     /**
-     * Stop the timer.
+     * Stop the timer, keeping the time counted so far.
      */
     public void stopCounting() {
+        if (!isCounting)
+            return;
+        elapsedNanos += System.nanoTime() - startNanos;
         isCounting = false;
-        elapsedSeconds = System.currentTimeMillis()/1000.0 - startTime;
+    }
+
+    /**
+     * Pause the timer. The same as stopCounting().
+     */
+    public void pause() {
+        stopCounting();
+    }
+
+    /**
+     * Resume a paused timer. The same as startCounting().
+     */
+    public void resume() {
+        startCounting();
+    }
+
+    /**
+     * Returns true if the timer is counting, or false if it has not been
+     * started yet or is paused.
+     */
+    public boolean isCounting() {
+        return isCounting;
     }
 
     /**
@@ -74,23 +100,55 @@ public class Timer extends GUI.Widget {
      * @param n the number of seconds to set the timer to.
      */
     public void reset(double n) {
-        elapsedSeconds = n;
+        resetMillis(Math.round(n * 1000));
+    }
+
+    /**
+     * Reset the timer back to the given number of milliseconds.
+     * If the timer is counting, it will remain so.
+     * @param millis the number of milliseconds to set the timer to.
+     */
+    public void resetMillis(long millis) {
+        elapsedNanos = millis * 1000000;
         if (isCounting)
-            startTime = System.currentTimeMillis()/1000.0;
+            startNanos = System.nanoTime();
     }
 
     /**
-     * Get the time (in seconds) that has elapsed while the timer was
+     * Get the time (in nanoseconds) that has elapsed while the timer was
      * counting. The time is cumulative, even if the timer is stopped then
      * restarted.
      */
-    public int getElapsedSeconds() {
-        // Update the elapsed time, if needed, then return it.
+    public long getElapsedNanos() {
         if (isCounting)
-            elapsedSeconds = System.currentTimeMillis()/1000.0 - startTime;
-        return (int)elapsedSeconds;
+            return elapsedNanos + (System.nanoTime() - startNanos);
+        return elapsedNanos;
     }
 
+    /**
+     * Get the time (in seconds) that has elapsed while the timer was
+     * counting, rounded down to whole seconds.
+     */
+    public int getElapsedSeconds() {
+        return (int)(getElapsedNanos() / 1000000000);
+    }
+
+    /**
+     * Get the time (in milliseconds) that has elapsed while the timer was
+     * counting, rounded down to whole milliseconds. This is the score for a
+     * game on the Leaderboard.
+     */
+    public long getElapsedMillis() {
+        return getElapsedNanos() / 1000000;
+    }
+
+    /**
+     * Get the time (in microseconds) that has elapsed while the timer was
+     * counting, rounded down to whole microseconds.
+     */
+    public long getElapsedMicros() {
+        return getElapsedNanos() / 1000;
+    }
 
     /**
      * Draw the timer box on a canvas. Don't call this directly, it is called by
@@ -113,8 +171,7 @@ public class Timer extends GUI.Widget {
         canvas.setPenColor(Canvas.BLACK);
         canvas.text(x + 75, y + 15, "Elapsed Time");
 
-        // Draw the number of mines in large red bold font.
-        // We cast to an integer so it doesn't show the decimal.
+        // Draw the number of whole seconds in large red bold font.
         canvas.setFont(Canvas.BOLD_FONT);
         canvas.setFont(24);
         canvas.setPenColor(Canvas.DARK_RED);
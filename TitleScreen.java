@@ -28,6 +28,11 @@ public class TitleScreen extends Window implements EventListener {
     // Buttons for the different options.
     private Button easy, okay, hard, quit;
 
+    // Background pictures, already scaled to the size they are drawn at.
+    private final String clouds = Sprites.scaled("clouds.jpg", 500, 350);
+    private final String woody = Sprites.scaled("woody.png", 250, 250);
+    private final String title = Sprites.scaled("toysweepertitle.png", 450, 48);
+
     /**
      * Initialize a new title screen. 
      */
@@ -75,9 +80,9 @@ public class TitleScreen extends Window implements EventListener {
      */
     public void repaintWindowBackground(GUI.Canvas canvas) {
         // Put a nice logo on the left side
-        canvas.picture(50,15,"clouds.jpg",500, 350);
-        canvas.picture(70, 100, "woody.png", 250, 250);
-        canvas.picture(75, 45, "toysweepertitle.png", 450, 48);
+        canvas.picture(50,15, clouds, 500, 350);
+        canvas.picture(70, 100, woody, 250, 250);
+        canvas.picture(75, 45, title, 450, 48);
         
 
         // Also draw some "raised 3D" beveled rectangles, so they look like
@@ -178,12 +183,28 @@ public class TitleScreen extends Window implements EventListener {
         return selection;
     }
 
+    /**
+     * Get the number of rows the game board should have for the selection.
+     * Every difficulty currently plays on the default size board; harder
+     * levels just hide more mines.
+     */
+    public int getNumRows() {
+        return Game.NUM_ROWS;
+    }
+
+    /**
+     * Get the number of columns the game board should have for the selection.
+     */
+    public int getNumCols() {
+        return Game.NUM_COLS;
+    }
+
     /**
      * A main() function, for testing.
      */
     public static void main(String args[]) {
         TitleScreen t = new TitleScreen();
-        t.showAndAnimate(4);
+        t.showAndAnimate(RepaintScheduler.FRAME_RATE);
         System.out.println("You chose: " + t.getSelection());
     }
 }
@@ -0,0 +1,293 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  EngineTest checks the rules of the game in Engine against a
+ *  plain model of them.
+ *
+ *  Run with:
+ *    java EngineTest
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * Tests for Engine. Random games are played on small boards, making random
+ * reveals, flags and chords on an Engine and on a model of the rules kept in plain arrays, and
+ * after every move the two must agree on what the move did, on the state of
+ * the game, and on every cell. The counters the engine keeps so that it can
+ * tell when a game is over without looking at the board must match a count
+ * of the cells, and so must an engine picked up from the board part way
+ * through. The program exits with status 1 at the first failure.
+ */
+public class EngineTest {
+
+    public static void main(String args[]) {
+        Random random = new Random(3);
+        for (int t = 0; t < 2000; t++) {
+            int rows = 1 + random.nextInt(10);
+            int cols = 1 + random.nextInt(10);
+            int mines = random.nextInt(rows * cols / 4 + 1);
+            play(rows, cols, mines, random.nextLong());
+        }
+        winByFlags();
+        StdOut.println("EngineTest: OK");
+    }
+
+    // Play one game of random moves on an Engine and on the model side by
+    // side, until it is over or a move limit is reached.
+    private static void play(int rows, int cols, int mines, long seed) {
+        Board board = new Board(rows, cols);
+        board.deployMines(mines, new Random(seed));
+        Engine engine = new Engine(board);
+        Model model = new Model(board);
+        Random random = new Random(seed + 1);
+        String what = rows + "x" + cols + ", " + mines + " mines, seed " + seed;
+
+        for (int move = 0; move < 4 * rows * cols && !engine.isGameOver(); move++) {
+            int r = random.nextInt(rows);
+            int c = random.nextInt(cols);
+            MoveResult m;
+            long revealed;
+            int flagged;
+            int kind = random.nextInt(8);
+            if (kind == 1 && mines > 0) {
+                // Flag a mine, so that chords have the right flags to go on.
+                long i = board.getMinePosition(random.nextInt(board.getNumMines()));
+                r = board.rowOf(i);
+                c = board.colOf(i);
+            }
+            if (kind <= 1) {
+                m = engine.flag(r, c);
+                flagged = model.flag(r, c);
+                revealed = 0;
+            } else if (kind <= 3) {
+                m = engine.chord(r, c);
+                revealed = model.chord(r, c);
+                flagged = 0;
+            } else {
+                m = engine.reveal(r, c);
+                revealed = model.reveal(r, c);
+                flagged = 0;
+            }
+            String at = "move " + move + " at " + r + "," + c + ", " + what;
+            check(m.getCellsRevealed() == revealed, "cells revealed, " + at);
+            check(m.getFlagChange() == flagged, "flag change, " + at);
+            check(m.getStatus() == model.status, "move status, " + at);
+            compare(engine, model, at);
+        }
+
+        Engine resumed = Engine.resume(board);
+        check(resumed.getStatus() == engine.getStatus(), "resumed status, " + what);
+        compare(resumed, model, "resumed, " + what);
+    }
+
+    // Flagging every mine wins, but not while another cell is flagged too.
+    private static void winByFlags() {
+        Board board = new Board(8, 8);
+        board.deployMines(10, new Random(5));
+        Engine engine = new Engine(board);
+        int n = board.getNumMines();
+        for (int k = 0; k < n; k++) {
+            check(!engine.isGameOver(), "win by flags: over after " + k + " flags");
+            long i = board.getMinePosition(k);
+            engine.flag(board.rowOf(i), board.colOf(i));
+        }
+        check(engine.getStatus() == Engine.WON, "win by flags: every mine flagged");
+
+        board.clear();
+        board.deployMines(10, new Random(5));
+        engine.restart();
+        int extraRow = -1, extraCol = -1;
+        for (int r = 0; r < 8 && extraRow < 0; r++)
+            for (int c = 0; c < 8 && extraRow < 0; c++)
+                if (!board.isMine(r, c)) {
+                    extraRow = r;
+                    extraCol = c;
+                }
+        engine.flag(extraRow, extraCol);
+        for (int k = 0; k < n; k++) {
+            long i = board.getMinePosition(k);
+            engine.flag(board.rowOf(i), board.colOf(i));
+        }
+        check(!engine.isGameOver(), "win by flags: not with a wrong flag too");
+        engine.flag(extraRow, extraCol);
+        check(engine.getStatus() == Engine.WON, "win by flags: wrong flag taken off");
+    }
+
+    // The engine and the model must agree on the game and every cell.
+    private static void compare(Engine engine, Model model, String what) {
+        Board board = engine.getBoard();
+        check(engine.getStatus() == model.status, "status, " + what);
+        check(engine.isGameOver() == (model.status != Engine.PLAYING), "game over, " + what);
+        long revealed = 0;
+        int flags = 0;
+        for (int r = 0; r < model.rows; r++) {
+            for (int c = 0; c < model.cols; c++) {
+                String cell = "cell " + r + "," + c + ", " + what;
+                check(board.isRevealed(r, c) == model.revealed[r][c], "revealed " + cell);
+                check(board.isFlagged(r, c) == model.flagged[r][c], "flagged " + cell);
+                if (model.revealed[r][c] && !model.mine[r][c])
+                    revealed++;
+                if (model.flagged[r][c])
+                    flags++;
+            }
+        }
+        check(engine.getNumRevealed() == revealed, "cells revealed so far, " + what);
+        check(engine.getNumCellsRemaining() == board.getNumCells() - revealed,
+              "cells remaining, " + what);
+        check(engine.getNumFlags() == flags, "flags, " + what);
+
+        // The list of mine positions holds every mine once.
+        boolean[] listed = new boolean[(int)board.getPaddedSize()];
+        check(board.getNumMines() == model.numMines, "number of mines, " + what);
+        for (int k = 0; k < board.getNumMines(); k++) {
+            long i = board.getMinePosition(k);
+            check(board.isMine(i) && !listed[(int)i], "mine position " + k + ", " + what);
+            listed[(int)i] = true;
+        }
+    }
+
+    /**
+     * The rules of the game, the slow and obvious way, on grids of flags.
+     */
+    private static class Model {
+        final int rows, cols;
+        final boolean[][] mine;
+        final boolean[][] revealed;
+        final boolean[][] flagged;
+        final int numMines;
+        int status = Engine.PLAYING;
+
+        Model(Board board) {
+            rows = board.getNumRows();
+            cols = board.getNumCols();
+            mine = new boolean[rows][cols];
+            revealed = new boolean[rows][cols];
+            flagged = new boolean[rows][cols];
+            int n = 0;
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < cols; c++)
+                    if (mine[r][c] = board.isMine(r, c))
+                        n++;
+            numMines = n;
+        }
+
+        // Reveal a cell. Returns the number of cells revealed.
+        long reveal(int r, int c) {
+            if (status != Engine.PLAYING || revealed[r][c] || flagged[r][c])
+                return 0;
+            if (mine[r][c]) {
+                lose();
+                return 0;
+            }
+            long n = fill(r, c);
+            checkForWin();
+            return n;
+        }
+
+        // Chord on a revealed number with as many flags around it as mines:
+        // reveal every other neighbor, or lose if a flag is wrong. Returns
+        // the number of cells revealed.
+        long chord(int r, int c) {
+            if (status != Engine.PLAYING || !revealed[r][c] || mine[r][c])
+                return 0;
+            int flags = 0;
+            for (int dr = -1; dr <= 1; dr++)
+                for (int dc = -1; dc <= 1; dc++)
+                    if (inside(r + dr, c + dc) && flagged[r + dr][c + dc])
+                        flags++;
+            if (flags != minesAround(r, c))
+                return 0;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int rr = r + dr, cc = c + dc;
+                    if (inside(rr, cc) && !revealed[rr][cc] && !flagged[rr][cc] && mine[rr][cc]) {
+                        lose();
+                        return 0;
+                    }
+                }
+            }
+            long n = 0;
+            for (int dr = -1; dr <= 1; dr++)
+                for (int dc = -1; dc <= 1; dc++)
+                    n += fill(r + dr, c + dc);
+            checkForWin();
+            return n;
+        }
+
+        // Flag or unflag a cell. Returns the change in the number of flags.
+        int flag(int r, int c) {
+            if (status != Engine.PLAYING || revealed[r][c])
+                return 0;
+            flagged[r][c] = !flagged[r][c];
+            checkForWin();
+            return flagged[r][c] ? 1 : -1;
+        }
+
+        // Reveal a safe cell and, if none of its neighbors are mines, its
+        // neighbors, and so on. Returns the number of cells revealed.
+        long fill(int r, int c) {
+            if (r < 0 || c < 0 || r >= rows || c >= cols)
+                return 0;
+            if (revealed[r][c] || flagged[r][c] || mine[r][c])
+                return 0;
+            revealed[r][c] = true;
+            long n = 1;
+            if (minesAround(r, c) == 0)
+                for (int dr = -1; dr <= 1; dr++)
+                    for (int dc = -1; dc <= 1; dc++)
+                        n += fill(r + dr, c + dc);
+            return n;
+        }
+
+        int minesAround(int r, int c) {
+            int n = 0;
+            for (int dr = -1; dr <= 1; dr++)
+                for (int dc = -1; dc <= 1; dc++)
+                    if (inside(r + dr, c + dc) && mine[r + dr][c + dc])
+                        n++;
+            return n;
+        }
+
+        boolean inside(int r, int c) {
+            return r >= 0 && c >= 0 && r < rows && c < cols;
+        }
+
+        // Lose the game, showing every mine.
+        void lose() {
+            status = Engine.LOST;
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < cols; c++)
+                    if (mine[r][c])
+                        revealed[r][c] = true;
+        }
+
+        // The game is won once every safe cell is revealed, or every mine
+        // and nothing else is flagged.
+        void checkForWin() {
+            int hidden = 0, rightFlags = 0, flags = 0;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (!mine[r][c] && !revealed[r][c])
+                        hidden++;
+                    if (flagged[r][c]) {
+                        flags++;
+                        if (mine[r][c])
+                            rightFlags++;
+                    }
+                }
+            }
+            if (hidden == 0 || (rightFlags == numMines && flags == numMines))
+                status = Engine.WON;
+        }
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
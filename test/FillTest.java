@@ -0,0 +1,97 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  FillTest checks that Board.fill reveals the same cells as the
+ *  recursive fill the game used to have.
+ *
+ *  Run with:
+ *    java FillTest
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * Tests for Board.fill. On random boards, every fill must reveal exactly the
+ * cells that the old recursive fill in Game would have: starting from the
+ * clicked cell, reveal it, and if it has no neighboring mines, fill from each
+ * of its neighbors. The same must hold when the fill stack is limited to a
+ * few entries, so that fill has to fall back on scanning the board. The
+ * program exits with status 1 at the first failure.
+ */
+public class FillTest {
+
+    public static void main(String args[]) {
+        Random random = new Random(42);
+        for (int t = 0; t < 200; t++) {
+            int rows = 1 + random.nextInt(40);
+            int cols = 1 + random.nextInt(60);
+            int mines = random.nextInt(rows * cols / 5 + 1);
+            long seed = random.nextLong();
+            int clicks = 1 + random.nextInt(5);
+            compare(rows, cols, mines, seed, clicks, 0);
+            compare(rows, cols, mines, seed, clicks, 1 + random.nextInt(4));
+        }
+        StdOut.println("FillTest: OK");
+    }
+
+    // Deal a board and click on it a few times, filling with Board.fill and
+    // with the old recursive fill side by side. If maxStack is positive, the
+    // board's fill stack is limited to that many entries.
+    private static void compare(int rows, int cols, int mines, long seed, int clicks,
+                                int maxStack) {
+        Board board = new Board(rows, cols);
+        board.deployMines(mines, new Random(seed));
+        if (maxStack > 0)
+            board.setMaxFillStack(maxStack);
+        boolean[][] revealed = new boolean[rows][cols];
+        Random random = new Random(seed + 1);
+        String what = rows + "x" + cols + ", " + mines + " mines, seed " + seed
+            + ", stack " + maxStack;
+
+        for (int k = 0; k < clicks; k++) {
+            int r = random.nextInt(rows);
+            int c = random.nextInt(cols);
+            if (board.isMine(r, c))
+                continue;
+            long expected = oldFill(board, revealed, r, c);
+            check(board.fill(r, c) == expected, "count revealed, " + what);
+            for (int rr = 0; rr < rows; rr++)
+                for (int cc = 0; cc < cols; cc++)
+                    check(board.isRevealed(rr, cc) == revealed[rr][cc],
+                          "cell " + rr + "," + cc + ", " + what);
+        }
+    }
+
+    // The fill Game used before Board.fill, on a grid of revealed flags
+    // rather than Cell objects. Returns the number of cells revealed.
+    private static long oldFill(Board board, boolean[][] revealed, int n, int i) {
+        if (n < 0 || i < 0 || n > board.getNumRows() - 1 || i > board.getNumCols() - 1)
+            return 0;
+        if (revealed[n][i])
+            return 0;
+        if (board.isMine(n, i))
+            return 0;
+        revealed[n][i] = true;
+        long count = 1;
+        if (board.getNeighborMineCount(n, i) == 0) {
+            count += oldFill(board, revealed, n-1, i-1);
+            count += oldFill(board, revealed, n-1, i);
+            count += oldFill(board, revealed, n-1, i+1);
+            count += oldFill(board, revealed, n, i-1);
+            count += oldFill(board, revealed, n, i+1);
+            count += oldFill(board, revealed, n+1, i-1);
+            count += oldFill(board, revealed, n+1, i);
+            count += oldFill(board, revealed, n+1, i+1);
+        }
+        return count;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
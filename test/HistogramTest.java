@@ -0,0 +1,126 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  HistogramTest checks the percentiles a Histogram reads off its
+ *  buckets against the values themselves.
+ *
+ *  Run with:
+ *    java HistogramTest
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for Histogram. Random sets of values, small and spread over many
+ * powers of two, are recorded, and each percentile must be at least the
+ * exact one from the sorted values, less than twice it, and no more than the
+ * largest value. The count, sum, mean and largest value must be exact, also
+ * when several threads record at once, and a reset histogram must be empty.
+ * The program exits with status 1 at the first failure.
+ */
+public class HistogramTest {
+
+    // Percentiles to check.
+    private static final double[] FRACTIONS = { 0, 0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1 };
+
+    public static void main(String args[]) {
+        Random random = new Random(13);
+        for (int t = 0; t < 500; t++) {
+            int n = 1 + random.nextInt(t < 250 ? 20 : 5000);
+            long[] values = new long[n];
+            for (int k = 0; k < n; k++)
+                values[k] = random.nextInt(4) == 0 ? random.nextInt(8)
+                    : random.nextLong() >>> (14 + random.nextInt(50)); // sums fit in a long
+            against(values, "set " + t);
+        }
+        empty();
+        threads();
+        StdOut.println("HistogramTest: OK");
+    }
+
+    // Record the values and compare the histogram with them.
+    private static void against(long[] values, String what) {
+        Histogram h = new Histogram("test", "ns");
+        long sum = 0;
+        for (long v : values) {
+            h.record(v);
+            sum += v;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        check(h.getCount() == n, "count, " + what);
+        check(h.getSum() == sum, "sum, " + what);
+        check(h.getMax() == sorted[n - 1], "max, " + what);
+        check(Math.abs(h.getMean() - (double)sum / n) <= 1e-9 * Math.abs((double)sum / n),
+              "mean, " + what);
+        for (double f : FRACTIONS) {
+            long exact = sorted[Math.max(0, (int)Math.ceil(f * n) - 1)];
+            long p = h.getPercentile(f);
+            String at = "percentile " + f + ": " + p + " for " + exact + ", " + what;
+            check(p >= exact, "below the value, " + at);
+            check(p <= sorted[n - 1], "above the max, " + at);
+            check(exact == 0 ? p == 0 : p / 2 < exact, "not within a factor of two, " + at);
+        }
+        check(h.getP50() == h.getPercentile(0.50) && h.getP90() == h.getPercentile(0.90)
+              && h.getP99() == h.getPercentile(0.99), "p50, p90 and p99, " + what);
+    }
+
+    // An empty histogram reads 0 everywhere, negative values count as 0, and
+    // a reset histogram is empty again.
+    private static void empty() {
+        Histogram h = new Histogram("test", "ns");
+        for (double f : FRACTIONS)
+            check(h.getPercentile(f) == 0, "empty percentile " + f);
+        check(h.getCount() == 0 && h.getSum() == 0 && h.getMean() == 0 && h.getMax() == 0,
+              "empty totals");
+        h.record(-5);
+        check(h.getCount() == 1 && h.getSum() == 0 && h.getMax() == 0
+              && h.getPercentile(1) == 0, "negative counted as 0");
+        h.record(1000);
+        h.reset();
+        check(h.getCount() == 0 && h.getSum() == 0 && h.getMax() == 0
+              && h.getPercentile(0.5) == 0, "reset");
+        h.record(3);
+        check(h.getCount() == 1 && h.getMax() == 3 && h.getPercentile(1) == 3, "after reset");
+    }
+
+    // Threads recording at once lose nothing.
+    private static void threads() {
+        final Histogram h = new Histogram("test", "ns");
+        final int perThread = 100000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long base = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int k = 0; k < perThread; k++)
+                        h.record(base + k);
+                }
+            };
+            threads[t].start();
+        }
+        long sum = 0;
+        for (int t = 0; t < threads.length; t++) {
+            try {
+                threads[t].join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            sum += (long)t * perThread + (long)perThread * (perThread - 1) / 2;
+        }
+        check(h.getCount() == (long)threads.length * perThread, "count from threads");
+        check(h.getSum() == sum, "sum from threads");
+        check(h.getMax() == threads.length - 1 + perThread - 1, "max from threads");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
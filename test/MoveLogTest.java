@@ -0,0 +1,80 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  MoveLogTest checks that a recorded game saves, loads, and
+ *  replays move for move.
+ *
+ *  Run with:
+ *    java MoveLogTest
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Tests for MoveLog. Random games are played with every move recorded, the
+ * log is saved and loaded, and the loaded log must hold the same moves and
+ * replay without a mismatch. The program exits with status 1 at the first
+ * failure.
+ */
+public class MoveLogTest {
+
+    public static void main(String args[]) throws IOException {
+        Random random = new Random(11);
+        for (int t = 0; t < 50; t++)
+            roundTrip(2 + random.nextInt(30), 2 + random.nextInt(30), random);
+        StdOut.println("MoveLogTest: OK");
+    }
+
+    private static void roundTrip(int rows, int cols, Random random) throws IOException {
+        long seed = random.nextLong();
+        int mines = 1 + random.nextInt(rows * cols / 5 + 1);
+        StdRandom.setSeed(seed);
+        Engine engine = new Engine(rows, cols, mines);
+        MoveLog log = new MoveLog(seed, rows, cols, mines);
+        engine.setMoveLog(log);
+
+        for (int k = 0; k < 200 && !engine.isGameOver(); k++) {
+            int r = random.nextInt(rows), c = random.nextInt(cols);
+            int kind = random.nextInt(5) == 0 ? MoveLog.FLAG : MoveLog.REVEAL;
+            if (kind == MoveLog.FLAG)
+                engine.flag(r, c);
+            else
+                engine.reveal(r, c);
+        }
+
+        Path file = Files.createTempFile("replay", ".dat");
+        log.save(file);
+        MoveLog loaded = MoveLog.load(file);
+
+        String what = rows + "x" + cols + ", seed " + seed;
+        check(loaded.getSeed() == seed, "seed, " + what);
+        check(loaded.getNumRows() == rows && loaded.getNumCols() == cols, "size, " + what);
+        check(loaded.getNumMines() == mines, "mines, " + what);
+        check(loaded.getCandidate() == -1, "candidate, " + what);
+        check(loaded.getNumMoves() == log.getNumMoves(), "move count, " + what);
+
+        MoveLog.Reader a = log.reader();
+        MoveLog.Reader b = loaded.reader();
+        while (a.next()) {
+            check(b.next(), "too few moves, " + what);
+            check(a.kind == b.kind && a.row == b.row && a.col == b.col
+                  && a.timeMillis == b.timeMillis && a.cellsRevealed == b.cellsRevealed
+                  && a.status == b.status, "move, " + what);
+        }
+        check(!b.next(), "too many moves, " + what);
+
+        check(new Replay(loaded).run() == -1, "replay, " + what);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  NoGuessGeneratorTest checks that a seed always gives the same
+ *  board, however many threads search for it.
+ *
+ *  Run with:
+ *    java NoGuessGeneratorTest
+ *----------------------------------------------------------------*/
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for NoGuessGenerator. For a spread of board sizes and seeds,
+ * generate() must choose the same candidate on a pool of one thread as on a
+ * pool of several, and that candidate must be the lowest-numbered one that
+ * the solver can clear from the first click, checked one candidate at a
+ * time. Each candidate must also be dealt the same way every time, with the
+ * first click and its neighbors clear. The program exits with status 1 at
+ * the first failure.
+ */
+public class NoGuessGeneratorTest {
+
+    // Boards to try, as { rows, cols, mines, maxCandidates }. None of the
+    // candidates for the last one can be cleared, so both pools have to
+    // give up the same way.
+    private static final int[][] BOARDS = {
+        { 9, 9, 10, 50 }, { 16, 16, 40, 100 }, { 16, 30, 99, 200 }, { 30, 30, 150, 100 },
+        { 30, 30, 200, 20 }
+    };
+
+    public static void main(String args[]) {
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        for (int[] b : BOARDS) {
+            for (long seed = 0; seed < 8; seed++) {
+                String what = b[0] + "x" + b[1] + ", " + b[2] + " mines, seed " + seed;
+                NoGuessGenerator g1 = new NoGuessGenerator(b[0], b[1], b[2], one);
+                NoGuessGenerator gn = new NoGuessGenerator(b[0], b[1], b[2], many);
+                g1.setMaxCandidates(b[3]);
+                gn.setMaxCandidates(b[3]);
+                long c1 = g1.generate(seed);
+                long cn = gn.generate(seed);
+                check(c1 == cn, "candidate on 1 and 4 threads, " + what);
+                check(g1.isSolvable() == gn.isSolvable(), "solvable on 1 and 4 threads, " + what);
+                check(g1.isSolvable() == (lowest(g1, b[0], b[1], seed, b[3]) == c1), "lowest, " + what);
+                sameDeal(g1, b[0], b[1], seed, c1, what);
+            }
+        }
+        one.shutdown();
+        many.shutdown();
+        StdOut.println("NoGuessGeneratorTest: OK");
+    }
+
+    // The lowest candidate the solver clears, trying them one at a time, or
+    // -1 if none of the first max can be.
+    private static long lowest(NoGuessGenerator g, int rows, int cols, long seed, long max) {
+        for (long k = 0; k < max; k++)
+            if (solves(g, rows, cols, seed, k))
+                return k;
+        return -1;
+    }
+
+    // Deal candidate k on a fresh board and play it with a fresh solver.
+    // Returns true if the solver clears the board without guessing.
+    private static boolean solves(NoGuessGenerator g, int rows, int cols, long seed, long k) {
+        Board board = deal(g, rows, cols, seed, k);
+        Engine engine = new Engine(board);
+        Solver solver = new Solver(engine);
+        engine.reveal(g.getStartRow(), g.getStartCol());
+        while (!engine.isGameOver()) {
+            solver.update();
+            long i = solver.nextSafe();
+            if (i < 0)
+                return false;
+            engine.reveal(board.rowOf(i), board.colOf(i));
+        }
+        return engine.getStatus() == Engine.WON;
+    }
+
+    // Dealing a candidate twice gives the same mines, none of them on or
+    // next to the first click.
+    private static void sameDeal(NoGuessGenerator g, int rows, int cols, long seed, long k,
+                                 String what) {
+        Board a = deal(g, rows, cols, seed, k);
+        Board b = deal(g, rows, cols, seed, k);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                check(a.isMine(r, c) == b.isMine(r, c), "same deal at " + r + "," + c + ", " + what);
+                if (Math.abs(r - g.getStartRow()) <= 1 && Math.abs(c - g.getStartCol()) <= 1)
+                    check(!a.isMine(r, c), "first click clear at " + r + "," + c + ", " + what);
+            }
+        }
+    }
+
+    // Deal candidate k on a fresh board.
+    private static Board deal(NoGuessGenerator g, int rows, int cols, long seed, long k) {
+        Board board = new Board(rows, cols);
+        g.deploy(board, seed, k);
+        return board;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
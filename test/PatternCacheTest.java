@@ -0,0 +1,135 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  PatternCacheTest checks lookups, eviction and hashing in
+ *  PatternCache, and that a solver finds a shape it has seen before.
+ *
+ *  Run with:
+ *    java PatternCacheTest
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for PatternCache. A pattern is found again only with the same hash
+ * and the same description, so a hash collision misses rather than returning
+ * the wrong counts; the least recently used pattern is evicted when the
+ * cache is full; and a pattern's hash doesn't depend on the order of its
+ * numbers. Then a ProbabilitySolver that sees the same shape in a second
+ * place on the board must find it in the cache and give the same odds. The
+ * program exits with status 1 at the first failure.
+ */
+public class PatternCacheTest {
+
+    public static void main(String args[]) {
+        lookups();
+        eviction();
+        hashes();
+        sameShape();
+        StdOut.println("PatternCacheTest: OK");
+    }
+
+    // A pattern is found by its hash and description, and by nothing else.
+    private static void lookups() {
+        PatternCache cache = new PatternCache(8);
+        long[] p = { PatternCache.describe(0, 0, 0x1F, 2) };
+        long[] q = { PatternCache.describe(0, 0, 0x1F, 3) };
+        PatternCache.Entry e = entry(p);
+        check(cache.get(7, p) == null, "empty cache misses");
+        cache.put(7, e);
+        check(cache.get(7, p) == e, "hit");
+        check(cache.get(7, q) == null, "same hash, other pattern misses");
+        check(cache.get(8, p) == null, "other hash misses");
+        check(cache.getHits() == 1 && cache.getMisses() == 3, "hits and misses counted");
+        check(Math.abs(cache.getHitRate() - 0.25) < 1e-12, "hit rate");
+    }
+
+    // When the cache is full, the pattern used least recently goes.
+    private static void eviction() {
+        PatternCache cache = new PatternCache(3);
+        long[][] p = new long[5][];
+        for (int k = 0; k < p.length; k++)
+            p[k] = new long[] { PatternCache.describe(k, 0, 1, 1) };
+        for (int k = 0; k < 3; k++)
+            cache.put(k, entry(p[k]));
+        check(cache.get(0, p[0]) != null, "first pattern still there");
+        cache.put(3, entry(p[3]));
+        check(cache.size() == 3 && cache.getEvictions() == 1, "one evicted");
+        check(cache.get(1, p[1]) == null, "least recently used evicted");
+        check(cache.get(0, p[0]) != null && cache.get(2, p[2]) != null
+              && cache.get(3, p[3]) != null, "the rest kept");
+    }
+
+    // A pattern's hash is the exclusive-or of its numbers' keys, so it is the
+    // same in any order, and keys of different descriptions differ.
+    private static void hashes() {
+        Random random = new Random(1);
+        for (int t = 0; t < 1000; t++) {
+            int n = 1 + random.nextInt(6);
+            int[][] numbers = new int[n][];
+            for (int k = 0; k < n; k++)
+                numbers[k] = new int[] { random.nextInt(9) - 4, random.nextInt(9) - 4,
+                                         random.nextInt(256), random.nextInt(9) };
+            long forward = 0, backward = 0;
+            for (int k = 0; k < n; k++) {
+                int[] a = numbers[k], b = numbers[n - 1 - k];
+                forward ^= PatternCache.key(a[0], a[1], a[2], a[3]);
+                backward ^= PatternCache.key(b[0], b[1], b[2], b[3]);
+            }
+            check(forward == backward, "hash doesn't depend on order");
+        }
+        check(PatternCache.key(0, 1, 3, 1) != PatternCache.key(1, 0, 3, 1), "row and column");
+        check(PatternCache.key(0, 0, 3, 1) != PatternCache.key(0, 0, 3, 2), "need");
+        check(PatternCache.describe(-1, 2, 3, 1) != PatternCache.describe(2, -1, 3, 1),
+              "negative offsets");
+    }
+
+    // The same shape in a second place on the board is a cache hit, and its
+    // cells get the same odds as the first.
+    private static void sameShape() {
+        Board board = new Board(5, 11);
+        for (int c : new int[] { 1, 7 }) {
+            plant(board, 1, c);
+            plant(board, 3, c + 2);
+        }
+        PatternCache cache = new PatternCache(16);
+        Solver solver = new Solver(new Engine(board));
+        ProbabilitySolver odds = new ProbabilitySolver(solver, ForkJoinPool.commonPool(), cache);
+
+        board.reveal(board.index(2, 2));
+        odds.compute();
+        check(cache.getHits() == 0 && cache.size() == 1, "first shape enumerated");
+        long misses = cache.getMisses();
+        board.reveal(board.index(2, 8));
+        odds.compute();
+        check(odds.getNumFound() == 1, "only the new shape found again");
+        check(cache.getMisses() == misses && cache.size() == 1,
+              "second shape found in the cache");
+        for (int dr = -1; dr <= 1; dr++)
+            for (int dc = -1; dc <= 1; dc++)
+                check(odds.getProbability(board.index(2 + dr, 2 + dc))
+                      == odds.getProbability(board.index(2 + dr, 8 + dc)),
+                      "same odds at " + dr + "," + dc);
+    }
+
+    private static void plant(Board board, int r, int c) {
+        long i = board.index(r, c);
+        board.plantMine(i);
+        for (long offset : board.getNeighborOffsets())
+            board.incrementNeighborMineCount(i + offset);
+    }
+
+    private static PatternCache.Entry entry(long[] pattern) {
+        return new PatternCache.Entry(pattern, 0, new double[] { 1 }, new double[1]);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
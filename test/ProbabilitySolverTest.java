@@ -0,0 +1,191 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ProbabilitySolverTest checks the odds worked out by a
+ *  ProbabilitySolver against counting every way to place the mines.
+ *
+ *  Run with:
+ *    java ProbabilitySolverTest
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for ProbabilitySolver. On random small boards with random cells
+ * revealed, every placement of the mines left over the hidden cells next to
+ * the numbers is tried, and each one that agrees with the numbers is
+ * counted along with the ways to put the rest of the mines in the other
+ * hidden cells. The probability the solver gives for every hidden cell must
+ * match the count. The same must hold for a solver with no step budget,
+ * once the components it left to the pool have been enumerated. The program
+ * exits with status 1 at the first failure.
+ */
+public class ProbabilitySolverTest {
+
+    // Most hidden cells next to the numbers, so the count stays quick.
+    private static final int MAX_FRONTIER = 16;
+
+    // How close the probabilities must be.
+    private static final double EPSILON = 1e-9;
+
+    public static void main(String args[]) {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Random random = new Random(11);
+        int compared = 0;
+        for (int t = 0; t < 2000; t++) {
+            int rows = 2 + random.nextInt(5);
+            int cols = 2 + random.nextInt(5);
+            int mines = 1 + random.nextInt(rows * cols / 3);
+            if (against(rows, cols, mines, random.nextLong(), pool))
+                compared++;
+        }
+        check(compared > 1000, "too few boards compared: " + compared);
+        StdOut.println("ProbabilitySolverTest: OK");
+    }
+
+    // Deal a board, reveal some of its safe cells, and compare the solver
+    // with the count. Returns false if the board was skipped for having too
+    // many hidden cells next to its numbers.
+    private static boolean against(int rows, int cols, int mines, long seed, ForkJoinPool pool) {
+        Board board = new Board(rows, cols);
+        board.deployMines(mines, new Random(seed));
+        Random random = new Random(seed + 1);
+        for (int r = 0; r < rows; r++)
+            for (int c = 0; c < cols; c++)
+                if (!board.isMine(r, c) && random.nextInt(2) == 0)
+                    board.reveal(board.index(r, c));
+        String what = rows + "x" + cols + ", " + mines + " mines, seed " + seed;
+
+        double[] expected = count(board);
+        if (expected == null)
+            return false;
+        Solver solver = new Solver(Engine.resume(board));
+        ProbabilitySolver odds = new ProbabilitySolver(solver, pool, new PatternCache(64));
+        odds.compute();
+        check(odds.isExact(), "weighed exactly, " + what);
+        compare(board, odds, expected, what);
+
+        // With no steps to spare, every component is estimated at first
+        // and enumerated on the pool, and a compute() once the pool is done
+        // picks up the counts.
+        Solver later = new Solver(Engine.resume(board));
+        ProbabilitySolver refined = new ProbabilitySolver(later, pool, new PatternCache(64));
+        refined.setStepBudget(0);
+        refined.update();
+        pool.awaitQuiescence(1, TimeUnit.MINUTES);
+        refined.compute();
+        check(refined.getNumRefining() == 0, "refinements picked up, " + what);
+        compare(board, refined, expected, what + ", refined");
+        return true;
+    }
+
+    // The probabilities from the solver must match the count for every
+    // hidden cell.
+    private static void compare(Board board, ProbabilitySolver odds, double[] expected,
+                                String what) {
+        for (int r = 0; r < board.getNumRows(); r++) {
+            for (int c = 0; c < board.getNumCols(); c++) {
+                long i = board.index(r, c);
+                if (board.isRevealed(i))
+                    continue;
+                double p = odds.getProbability(i);
+                check(Math.abs(p - expected[(int)i]) < EPSILON,
+                      "cell " + r + "," + c + ": " + p + ", not " + expected[(int)i]
+                      + ", " + what);
+            }
+        }
+    }
+
+    // Work out the probability of a mine in every hidden cell by trying
+    // every placement of mines in the hidden cells next to the numbers.
+    // Returns the probabilities by index, or null if there are too many
+    // such cells to try them all.
+    private static double[] count(Board board) {
+        long[] neighbors = board.getNeighborOffsets();
+        int size = (int)board.getPaddedSize();
+        long[] frontier = new long[size];
+        long[] interior = new long[size];
+        int nf = 0, ni = 0;
+        long[] numbers = new long[size];
+        int nn = 0;
+        for (int r = 0; r < board.getNumRows(); r++) {
+            for (int c = 0; c < board.getNumCols(); c++) {
+                long i = board.index(r, c);
+                if (board.isRevealed(i)) {
+                    numbers[nn++] = i;
+                    continue;
+                }
+                boolean near = false;
+                for (long offset : neighbors)
+                    near |= board.isRevealed(i + offset) && !board.isBorder(i + offset);
+                if (near)
+                    frontier[nf++] = i;
+                else
+                    interior[ni++] = i;
+            }
+        }
+        if (nf > MAX_FRONTIER)
+            return null;
+
+        // Where each frontier cell is in the list, by index.
+        int[] at = new int[size];
+        Arrays.fill(at, -1);
+        for (int f = 0; f < nf; f++)
+            at[(int)frontier[f]] = f;
+
+        int mines = board.getNumMines();
+        double total = 0;
+        double interiorMines = 0;
+        double[] mineWeight = new double[nf];
+        for (int set = 0; set < 1 << nf; set++) {
+            int k = Integer.bitCount(set);
+            if (k > mines || mines - k > ni)
+                continue;
+            boolean agrees = true;
+            for (int n = 0; n < nn && agrees; n++) {
+                int around = 0;
+                for (long offset : neighbors) {
+                    int f = at[(int)(numbers[n] + offset)];
+                    if (f >= 0 && (set & (1 << f)) != 0)
+                        around++;
+                }
+                agrees = around == board.getNeighborMineCount(numbers[n]);
+            }
+            if (!agrees)
+                continue;
+            double w = choose(ni, mines - k);
+            total += w;
+            interiorMines += w * (mines - k);
+            for (int f = 0; f < nf; f++)
+                if ((set & (1 << f)) != 0)
+                    mineWeight[f] += w;
+        }
+
+        double[] p = new double[size];
+        for (int f = 0; f < nf; f++)
+            p[(int)frontier[f]] = mineWeight[f] / total;
+        for (int k = 0; k < ni; k++)
+            p[(int)interior[k]] = interiorMines / total / ni;
+        return p;
+    }
+
+    // The number of ways to choose k things from n.
+    private static double choose(int n, int k) {
+        double c = 1;
+        for (int j = 1; j <= k; j++)
+            c = c * (n - k + j) / j;
+        return c;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  SavedGameTest checks that a game saved part way through loads
+ *  back exactly as it was.
+ *
+ *  Run with:
+ *    java SavedGameTest
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Tests for SavedGame. Random games are played part way, saved and loaded,
+ * and every cell of the loaded board must match. The program exits with
+ * status 1 at the first failure.
+ */
+public class SavedGameTest {
+
+    public static void main(String args[]) throws IOException {
+        Random random = new Random(7);
+        for (int t = 0; t < 50; t++)
+            roundTrip(1 + random.nextInt(60), 1 + random.nextInt(60), t % 2 == 0, random);
+        notASavedGame();
+        StdOut.println("SavedGameTest: OK");
+    }
+
+    // Play a game part way, save it and load it. If seeded, the mines come
+    // from StdRandom and only the seed is stored; otherwise they come from
+    // elsewhere and are stored themselves.
+    private static void roundTrip(int rows, int cols, boolean seeded, Random random)
+        throws IOException {
+        Board board = new Board(rows, cols);
+        long seed = random.nextLong();
+        int mines = random.nextInt(rows * cols / 4 + 1);
+        if (seeded) {
+            StdRandom.setSeed(seed);
+            board.deployMines(mines);
+        } else {
+            board.deployMines(mines, random);
+        }
+        for (int k = 0; k < 5; k++) {
+            int r = random.nextInt(rows), c = random.nextInt(cols);
+            if (!board.isMine(r, c))
+                board.fill(r, c);
+        }
+        for (int k = 0; k < 5; k++) {
+            int r = random.nextInt(rows), c = random.nextInt(cols);
+            if (!board.isRevealed(r, c))
+                board.flag(r, c);
+        }
+
+        Path file = Files.createTempFile("save", ".dat");
+        new SavedGame(board, seed, seeded, "ann", "hard", 65432).save(file);
+        check(SavedGame.isSavedGame(file), "magic number");
+        SavedGame saved = SavedGame.load(file);
+
+        String what = rows + "x" + cols + (seeded ? ", seeded" : "");
+        check(saved.getSeed() == seed && saved.isSeeded() == seeded, "seed, " + what);
+        check(saved.getUsername().equals("ann"), "username, " + what);
+        check(saved.getDifficulty().equals("hard"), "difficulty, " + what);
+        check(saved.getElapsedMillis() == 65432, "elapsed time, " + what);
+        Board b = saved.getBoard();
+        check(b.getNumRows() == rows && b.getNumCols() == cols, "size, " + what);
+        check(b.getNumMines() == board.getNumMines(), "mine count, " + what);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                String cell = "cell " + r + "," + c + ", " + what;
+                check(b.isMine(r, c) == board.isMine(r, c), "mine at " + cell);
+                check(b.isRevealed(r, c) == board.isRevealed(r, c), "revealed " + cell);
+                check(b.isFlagged(r, c) == board.isFlagged(r, c), "flagged " + cell);
+                check(b.getNeighborMineCount(r, c) == board.getNeighborMineCount(r, c),
+                      "count at " + cell);
+            }
+        }
+    }
+
+    // Any other file is turned away with an IOException.
+    private static void notASavedGame() throws IOException {
+        Path file = Files.createTempFile("save", ".dat");
+        Files.write(file, "easy 1 aaa\n".getBytes("UTF-8"));
+        check(!SavedGame.isSavedGame(file), "text file is not a saved game");
+        boolean threw = false;
+        try {
+            SavedGame.load(file);
+        } catch (IOException e) {
+            threw = true;
+        }
+        check(threw, "loading a text file fails");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreFileTest checks that scores written in the binary score
+ *  file format, or read from an old text file, read back the same.
+ *
+ *  Run with:
+ *    java ScoreFileTest
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tests for ScoreFile. The program exits with status 1 at the first
+ * failure.
+ */
+public class ScoreFileTest {
+
+    public static void main(String args[]) throws IOException {
+        binary();
+        text();
+        StdOut.println("ScoreFileTest: OK");
+    }
+
+    // Scores laid out by a Writer read back sorted, with ties in the order
+    // they were added, along with the sequence number.
+    private static void binary() throws IOException {
+        ScoreFile.Writer w = new ScoreFile.Writer();
+        w.add("easy", "Bob", 3000);
+        w.add("hard", "Zo\u00eb", 120500);
+        w.add("easy", "Ann", 1250);
+        w.add("easy", "Cy", 3000);
+        w.add("medium", "", 0);
+        w.add("easy", "Bob", 999999999999L);
+
+        Path file = Files.createTempFile("scores", ".dat");
+        ByteBuffer buf = w.toBuffer(42);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining())
+                ch.write(buf);
+        }
+
+        ScoreFile f = new ScoreFile(file);
+        check(ScoreFile.isScoreFile(file), "binary: magic number");
+        check(f.getVersion() == ScoreFile.VERSION, "binary: version");
+        check(f.getSeq() == 42, "binary: seq");
+        check(Arrays.equals(f.getDifficulties(), new String[] { "easy", "hard", "medium" }),
+              "binary: difficulties");
+        check(f.getNumScores("easy") == 4, "binary: easy count");
+        long[] scores = { 1250, 3000, 3000, 999999999999L };
+        String[] names = { "Ann", "Bob", "Cy", "Bob" };
+        for (int i = 0; i < 4; i++) {
+            check(f.getScore("easy", i) == scores[i], "binary: easy score " + i);
+            check(f.getName("easy", i).equals(names[i]), "binary: easy name " + i);
+        }
+        check(f.getName("hard", 0).equals("Zo\u00eb"), "binary: non-ASCII name");
+        check(f.getScore("medium", 0) == 0 && f.getName("medium", 0).equals(""),
+              "binary: empty name");
+        check(f.getNumScores("expert") == 0, "binary: missing difficulty");
+        check(f.getScore("easy", 4) == -1, "binary: score past the end");
+    }
+
+    // An old text file, in seconds, reads back in milliseconds.
+    private static void text() throws IOException {
+        Path file = Files.createTempFile("scores", ".txt");
+        Files.write(file, Arrays.asList("#seq 7", "easy 5 bbb", "easy 1.5 aaa",
+                                        "medium 20 x y", "damaged"),
+                    StandardCharsets.UTF_8);
+        check(!ScoreFile.isScoreFile(file), "text: not a score file");
+        ScoreFile f = ScoreFile.open(file);
+        check(f.getSeq() == 7, "text: seq");
+        check(f.getNumScores("easy") == 2, "text: easy count");
+        check(f.getScore("easy", 0) == 1500 && f.getName("easy", 0).equals("aaa"),
+              "text: fractional seconds");
+        check(f.getScore("easy", 1) == 5000, "text: whole seconds");
+        check(f.getName("medium", 0).equals("x y"), "text: name with a space");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreListTest checks ScoreList against a plain sorted list.
+ *
+ *  Run with:
+ *    java ScoreListTest
+ *----------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for ScoreList. Random scores, with plenty of ties, are inserted into
+ * a ScoreList and into a plain list kept sorted the slow way, and the two
+ * must always agree. The program exits with status 1 at the first failure.
+ */
+public class ScoreListTest {
+
+    public static void main(String args[]) {
+        for (int capacity : new int[] { 1, 10, 64, 65, 1000, 20000 })
+            against(capacity, 30000, new Random(capacity));
+        copies();
+        StdOut.println("ScoreListTest: OK");
+    }
+
+    // Insert n random scores into a list with the given capacity, checking
+    // every rank returned, and then every entry.
+    private static void against(int capacity, int n, Random random) {
+        ScoreList list = new ScoreList(capacity);
+        List<Long> scores = new ArrayList<Long>();
+        List<String> names = new ArrayList<String>();
+        for (int k = 0; k < n; k++) {
+            long score = random.nextInt(5000);
+            String name = "p" + k;
+            int pos = 0;
+            while (pos < scores.size() && scores.get(pos) <= score)
+                pos++;
+            int expected = pos < capacity ? pos : -1;
+            check(list.rankOf(score) == expected, "rankOf, capacity " + capacity);
+            check(list.insert(name, score) == expected, "insert, capacity " + capacity);
+            if (expected >= 0) {
+                scores.add(pos, score);
+                names.add(pos, name);
+                if (scores.size() > capacity) {
+                    scores.remove(capacity);
+                    names.remove(capacity);
+                }
+            }
+        }
+        check(list.size() == scores.size(), "size, capacity " + capacity);
+        for (int i = 0; i < scores.size(); i++) {
+            check(list.getScore(i) == scores.get(i), "score " + i + ", capacity " + capacity);
+            check(list.getName(i).equals(names.get(i)), "name " + i + ", capacity " + capacity);
+        }
+        check(list.getScore(scores.size()) == -1, "score past the end");
+        check(list.getName(-1) == null, "name before the start");
+    }
+
+    // A copy and the list it came from don't see each other's inserts, and a
+    // frozen list can't be changed.
+    private static void copies() {
+        ScoreList a = new ScoreList(100);
+        for (int k = 0; k < 500; k++)
+            a.insert("a" + k, k * 7 % 1000);
+        ScoreList b = a.copy();
+        a.freeze();
+        long worst = a.getScore(99);
+        check(b.insert("b", 0) == 1, "insert into copy");
+        check(b.getName(1).equals("b") && !a.getName(1).equals("b"), "copy is separate");
+        check(a.size() == 100 && a.getScore(99) == worst, "original keeps its scores");
+        check(b.size() == 100 && b.getScore(99) == a.getScore(98), "copy drops its worst");
+        boolean threw = false;
+        try {
+            a.insert("c", 0);
+        } catch (IllegalStateException e) {
+            threw = true;
+        }
+        check(threw, "frozen list refuses inserts");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  ScoreLogTest checks that scores saved through a ScoreLog load
+ *  back the same, and that a damaged end of the log is cut off.
+ *
+ *  Run with:
+ *    java ScoreLogTest
+ *----------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tests for ScoreLog. Each test works in a fresh temporary directory, and
+ * the program exits with status 1 at the first failure.
+ */
+public class ScoreLogTest {
+
+    public static void main(String args[]) throws IOException {
+        roundTrip();
+        zeroTail();
+        hugeLengthTail();
+        longNames();
+        StdOut.println("ScoreLogTest: OK");
+    }
+
+    // Scores saved to the log load back in the same order.
+    private static void roundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("scorelog");
+        save(dir);
+        ScoreStore store = load(dir);
+        check(store.getScores("Easy").size() == 3, "round trip: 3 easy scores");
+        check(store.getScores("Easy").getScore(0) == 1250, "round trip: best easy score");
+        check(store.getScores("Easy").getName(0).equals("Ann"), "round trip: best easy name");
+        check(store.getScores("Hard").getScore(0) == 98765, "round trip: hard score");
+    }
+
+    // A log ending in zeros, as a crash part way through an append can leave,
+    // loads every record before the zeros and is cut back to them.
+    private static void zeroTail() throws IOException {
+        Path dir = Files.createTempDirectory("scorelog");
+        save(dir);
+        Path log = dir.resolve("scores.log");
+        long good = Files.size(log);
+        Files.write(log, new byte[64], StandardOpenOption.APPEND);
+
+        ScoreStore store = load(dir);
+        check(store.getScores("Easy").size() == 3, "zero tail: records kept");
+        check(Files.size(log) == good, "zero tail: log truncated");
+    }
+
+    // A record whose length is close to Integer.MAX_VALUE is a torn record,
+    // not a reason to fail.
+    private static void hugeLengthTail() throws IOException {
+        Path dir = Files.createTempDirectory("scorelog");
+        save(dir);
+        Path log = dir.resolve("scores.log");
+        long good = Files.size(log);
+        ByteBuffer b = ByteBuffer.allocate(16);
+        b.putInt(Integer.MAX_VALUE - 2);
+        Files.write(log, b.array(), StandardOpenOption.APPEND);
+
+        ScoreStore store = load(dir);
+        check(store.getScores("Hard").size() == 1, "huge length: records kept");
+        check(Files.size(log) == good, "huge length: log truncated");
+    }
+
+    // A name as long as the log can store loads back whole. A longer one,
+    // counted in UTF-8 bytes rather than chars, is refused before it goes in
+    // the store or the log.
+    private static void longNames() throws IOException {
+        Path dir = Files.createTempDirectory("scorelog");
+        String longest = repeat("a", 65533) + "\u00e9";
+        String tooLong = repeat("\u00e9", 32768);
+        ScoreStore store = new ScoreStore(10, log(dir));
+        store.load();
+        store.insert("Easy", longest, 1000);
+        boolean refused = false;
+        try {
+            store.insert("Easy", tooLong, 500);
+        } catch (IllegalArgumentException e) {
+            refused = true;
+        }
+        check(refused, "long names: too long refused");
+        check(store.getScores("Easy").size() == 1, "long names: too long not inserted");
+        store.save();
+
+        store = load(dir);
+        check(store.getScores("Easy").size() == 1, "long names: one score saved");
+        check(store.getScores("Easy").getName(0).equals(longest), "long names: longest kept");
+    }
+
+    private static String repeat(String s, int n) {
+        StringBuilder b = new StringBuilder();
+        for (int k = 0; k < n; k++)
+            b.append(s);
+        return b.toString();
+    }
+
+    // Save a few scores into the given directory.
+    private static void save(Path dir) throws IOException {
+        ScoreStore store = new ScoreStore(10, log(dir));
+        store.load();
+        store.insert("Easy", "Bob", 3000);
+        store.insert("Easy", "Ann", 1250);
+        store.insert("Easy", "Cy", 4500);
+        store.insert("Hard", "Dee", 98765);
+        store.save();
+    }
+
+    // Load the scores saved in the given directory.
+    private static ScoreStore load(Path dir) throws IOException {
+        ScoreStore store = new ScoreStore(10, log(dir));
+        store.load();
+        return store;
+    }
+
+    private static ScoreLog log(Path dir) {
+        return new ScoreLog(dir.resolve("scores.dat").toString(),
+                            dir.resolve("scores.log").toString());
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
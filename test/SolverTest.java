@@ -0,0 +1,226 @@
+/*----------------------------------------------------------------
+ *  Author:  Sean O'Sullivan
+ *  Email:   sposul23@holycross.edu
+ *  Written:  10/17/26
+ *
+ *  SolverTest checks that the Solver's deductions are right, and
+ *  that it finds every deduction its rules allow.
+ *
+ *  Run with:
+ *    java SolverTest
+ *----------------------------------------------------------------*/
+
+import java.util.Random;
+
+/**
+ * Tests for Solver. On random small boards with random cells revealed, the
+ * solver must be sound: every cell it calls safe is safe, and every cell it
+ * calls a mine is a mine. It must also be complete for its rules: it finds
+ * exactly the cells found by applying the single cell and subset rules to
+ * every number and every pair of numbers, over and over, until nothing
+ * changes. Both must hold whether the cells are revealed before the solver
+ * starts or a few at a time while it follows the game. The program exits
+ * with status 1 at the first failure.
+ */
+public class SolverTest {
+
+    // What the rules have decided about a cell.
+    private static final int UNKNOWN = 0;
+    private static final int SAFE = 1;
+    private static final int MINE = 2;
+
+    public static void main(String args[]) {
+        twoSubsets();
+        Random random = new Random(7);
+        for (int t = 0; t < 3000; t++) {
+            int rows = 2 + random.nextInt(7);
+            int cols = 2 + random.nextInt(7);
+            int mines = 1 + random.nextInt(rows * cols / 3);
+            long seed = random.nextLong();
+            against(rows, cols, mines, seed, false);
+            against(rows, cols, mines, seed, true);
+        }
+        StdOut.println("SolverTest: OK");
+    }
+
+    // Two subset deductions that hang off the same number. Once the cell at
+    // 0,1 is revealed, the 1 at 0,2 has just two undecided neighbors, 1,2
+    // and 1,3, and both are also neighbors of the 1 at 0,3 and of the 1 at
+    // 2,2. So the other undecided neighbors of each of those are safe. The
+    // reveal only queues the numbers next to 0,1, so the solver has to find
+    // both deductions while looking at the 1 at 0,2.
+    private static void twoSubsets() {
+        Board board = picture("..oo.",
+                              ".o*..",
+                              "*.o..",
+                              ".....");
+        Solver solver = new Solver(Engine.resume(board));
+        solver.update();
+        board.reveal(board.index(0, 1));
+        solver.update();
+        int[][] safe = { { 0, 4 }, { 1, 4 }, { 2, 1 }, { 2, 3 }, { 3, 1 }, { 3, 2 }, { 3, 3 } };
+        for (int[] rc : safe)
+            check(solver.isKnownSafe(board.index(rc[0], rc[1])),
+                  "two subsets: " + rc[0] + "," + rc[1] + " is safe");
+        compare(board, solver, "two subsets");
+    }
+
+    // Deal a board, reveal some of its safe cells, and compare the solver
+    // with the rules applied the slow way. If gradually, the solver starts on
+    // an empty board and catches up after each of a few batches of reveals;
+    // otherwise it starts once everything is revealed.
+    private static void against(int rows, int cols, int mines, long seed, boolean gradually) {
+        Board board = new Board(rows, cols);
+        board.deployMines(mines, new Random(seed));
+        Random random = new Random(seed + 1);
+        String what = rows + "x" + cols + ", " + mines + " mines, seed " + seed
+            + (gradually ? ", gradually" : "");
+
+        Solver solver = gradually ? new Solver(new Engine(board)) : null;
+        int batches = gradually ? 1 + random.nextInt(4) : 1;
+        for (int k = 0; k < batches; k++) {
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < cols; c++)
+                    if (!board.isMine(r, c) && random.nextInt(3) == 0)
+                        board.reveal(board.index(r, c));
+            if (solver == null)
+                solver = new Solver(Engine.resume(board));
+            solver.update();
+            compare(board, solver, what + ", batch " + k);
+        }
+    }
+
+    // The solver must have decided exactly what the rules decide about every
+    // hidden cell, and rightly.
+    private static void compare(Board board, Solver solver, String what) {
+        int[] expected = applyRules(board);
+        for (int r = 0; r < board.getNumRows(); r++) {
+            for (int c = 0; c < board.getNumCols(); c++) {
+                long i = board.index(r, c);
+                if (board.isRevealed(i))
+                    continue;
+                String cell = "cell " + r + "," + c + ", " + what;
+                if (solver.isKnownMine(i))
+                    check(board.isMine(i), "called a mine but safe: " + cell);
+                if (solver.isKnownSafe(i))
+                    check(!board.isMine(i), "called safe but a mine: " + cell);
+                check(solver.isKnownMine(i) == (expected[(int)i] == MINE),
+                      "known mine: " + cell);
+                check(solver.isKnownSafe(i) == (expected[(int)i] == SAFE),
+                      "known safe: " + cell);
+            }
+        }
+    }
+
+    // Apply both rules to every revealed number, and every pair of them,
+    // until nothing changes. Returns what was decided about each cell,
+    // by index.
+    private static int[] applyRules(Board board) {
+        int[] state = new int[(int)board.getPaddedSize()];
+        long[] numbers = new long[(int)board.getNumCells()];
+        int n = 0;
+        for (int r = 0; r < board.getNumRows(); r++)
+            for (int c = 0; c < board.getNumCols(); c++)
+                if (board.isRevealed(r, c))
+                    numbers[n++] = board.index(r, c);
+
+        long[] ua = new long[8];
+        long[] ub = new long[8];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int x = 0; x < n; x++) {
+                long a = numbers[x];
+                int na = unknowns(board, state, a, ua);
+                int ra = minesLeft(board, state, a);
+                if (na > 0 && (ra == 0 || ra == na)) {
+                    for (int k = 0; k < na; k++)
+                        state[(int)ua[k]] = ra == 0 ? SAFE : MINE;
+                    changed = true;
+                }
+            }
+            for (int x = 0; x < n; x++) {
+                for (int y = 0; y < n; y++) {
+                    long a = numbers[x], b = numbers[y];
+                    int na = unknowns(board, state, a, ua);
+                    int nb = unknowns(board, state, b, ub);
+                    if (na == 0 || nb <= na || !subset(ua, na, ub, nb))
+                        continue;
+                    int mines = minesLeft(board, state, b) - minesLeft(board, state, a);
+                    if (mines != 0 && mines != nb - na)
+                        continue;
+                    for (int k = 0; k < nb; k++)
+                        if (!subset(ub, k, k + 1, ua, na))
+                            state[(int)ub[k]] = mines == 0 ? SAFE : MINE;
+                    changed = true;
+                }
+            }
+        }
+        return state;
+    }
+
+    // Put the hidden neighbors of a cell that are still undecided into
+    // cells, and return how many there are.
+    private static int unknowns(Board board, int[] state, long i, long[] cells) {
+        int n = 0;
+        for (long offset : board.getNeighborOffsets()) {
+            long j = i + offset;
+            if (!board.isRevealed(j) && state[(int)j] == UNKNOWN)
+                cells[n++] = j;
+        }
+        return n;
+    }
+
+    // The number of a revealed cell, less the neighbors decided to be mines.
+    private static int minesLeft(Board board, int[] state, long i) {
+        int n = board.getNeighborMineCount(i);
+        for (long offset : board.getNeighborOffsets())
+            if (state[(int)(i + offset)] == MINE)
+                n--;
+        return n;
+    }
+
+    // Returns true if every one of the first na cells of a is among the
+    // first nb cells of b.
+    private static boolean subset(long[] a, int na, long[] b, int nb) {
+        return subset(a, 0, na, b, nb);
+    }
+
+    // Returns true if cells from..to-1 of a are all among the first nb of b.
+    private static boolean subset(long[] a, int from, int to, long[] b, int nb) {
+        for (int k = from; k < to; k++) {
+            boolean found = false;
+            for (int m = 0; m < nb; m++)
+                found |= a[k] == b[m];
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    // Build a board from a picture, one string per row: '*' is a hidden
+    // mine, '.' a hidden safe cell, and anything else a revealed safe cell.
+    private static Board picture(String... rows) {
+        Board board = new Board(rows.length, rows[0].length());
+        for (int r = 0; r < rows.length; r++)
+            for (int c = 0; c < rows[r].length(); c++)
+                if (rows[r].charAt(c) == '*') {
+                    long i = board.index(r, c);
+                    board.plantMine(i);
+                    for (long offset : board.getNeighborOffsets())
+                        board.incrementNeighborMineCount(i + offset);
+                }
+        for (int r = 0; r < rows.length; r++)
+            for (int c = 0; c < rows[r].length(); c++)
+                if (rows[r].charAt(c) != '*' && rows[r].charAt(c) != '.')
+                    board.reveal(board.index(r, c));
+        return board;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            StdOut.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}